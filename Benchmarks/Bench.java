@@ -0,0 +1,198 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Bench.java. A small benchmark harness for the coursework modules. Each
+ * benchmark is warmed up so the JIT compiles it, then timed repeatedly
+ * for a fixed period. One line is printed per benchmark with its
+ * throughput, latency percentiles, bytes allocated per operation and the
+ * garbage collections that ran while it was measured.
+ *
+ * Very fast operations are timed in batches, so that the cost of reading
+ * the clock does not swamp them. Their percentiles are then those of the
+ * batch averages. Allocation is counted on the calling thread only, so
+ * work done on other threads (such as a ForkJoinPool) is not included.
+ */
+public final class Bench {
+
+   /** shortest time a batch of operations should take, in nanoseconds. */
+   private static final long MIN_BATCH_NANOS = 10_000;
+
+   /** results are folded in here so the JIT cannot discard the work. */
+   private static volatile int sink;
+
+   private final long warmupNanos;
+   private final long measureNanos;
+   private final String filter;
+
+   /**
+    * Creates a harness.
+    *
+    * @param warmupMillis time to spend warming up each benchmark
+    * @param measureMillis time to spend measuring each benchmark
+    * @param filter only benchmarks whose names contain this are run, or
+    *        null to run them all
+    */
+   public Bench(long warmupMillis, long measureMillis, String filter) {
+      this.warmupNanos = warmupMillis * 1_000_000;
+      this.measureNanos = measureMillis * 1_000_000;
+      this.filter = filter;
+   }
+
+   /**
+    * Returns true if the benchmark with the given name will be run. Use
+    * this to skip expensive setup for benchmarks that are filtered out.
+    *
+    * @param name benchmark name
+    * @return true if name passes the filter
+    */
+   public boolean selected(String name) {
+      return filter == null || name.contains(filter);
+   }
+
+   /**
+    * Warms up, measures and reports one benchmark. Every operation runs
+    * at least once while warming up and once while measuring, however
+    * long it takes.
+    *
+    * @param name benchmark name, including its parameters
+    * @param op operation to measure; its result is consumed
+    * @throws Exception if op throws
+    */
+   public void run(String name, Callable<?> op) throws Exception {
+      if (!selected(name)) {
+         return;
+      }
+
+      long warmed = 0;
+      long start = System.nanoTime();
+      long end = start + warmupNanos;
+      do {
+         consume(op.call());
+         warmed++;
+      } while (System.nanoTime() < end);
+      long perOp = Math.max(1, (System.nanoTime() - start) / warmed);
+      int batch = (int) Math.max(1, Math.min(1 << 20, MIN_BATCH_NANOS / perOp));
+
+      long[] samples = new long[1024];
+      int count = 0;
+      long allocated = allocatedBytes();
+      long collections = collections();
+      long collectionMillis = collectionMillis();
+
+      start = System.nanoTime();
+      end = start + measureNanos;
+      long now = start;
+      do {
+         long before = now;
+         for (int i = 0; i < batch; i++) {
+            consume(op.call());
+         }
+         now = System.nanoTime();
+         if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+         }
+         samples[count++] = (now - before) / batch;
+      } while (now < end);
+
+      long ops = (long) count * batch;
+      allocated = allocatedBytes() - allocated;
+      collections = collections() - collections;
+      collectionMillis = collectionMillis() - collectionMillis;
+      Arrays.sort(samples, 0, count);
+
+      System.out.printf(Locale.ROOT,
+         "%-52s %14.1f ops/s  p50 %9s  p90 %9s  p99 %9s  max %9s  %12s/op  gc %d (%d ms)%n",
+         name, ops * 1e9 / (now - start),
+         time(percentile(samples, count, 0.50)),
+         time(percentile(samples, count, 0.90)),
+         time(percentile(samples, count, 0.99)),
+         time(samples[count - 1]),
+         allocated < 0 ? "n/a B" : bytes((double) allocated / ops),
+         collections, collectionMillis);
+   }
+
+   /**
+    * Folds result into the sink.
+    */
+   private static void consume(Object result) {
+      sink += System.identityHashCode(result);
+   }
+
+   /**
+    * Returns the value at quantile q of the first count sorted samples.
+    */
+   private static long percentile(long[] samples, int count, double q) {
+      int i = (int) Math.ceil(q * count) - 1;
+      return samples[Math.max(0, Math.min(count - 1, i))];
+   }
+
+   /**
+    * Returns the bytes allocated so far by this thread, or -1 if the JVM
+    * cannot tell.
+    */
+   private static long allocatedBytes() {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+         return ((com.sun.management.ThreadMXBean) threads)
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return -1;
+   }
+
+   /**
+    * Returns the number of garbage collections run so far.
+    */
+   private static long collections() {
+      long total = 0;
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+         total += Math.max(0, gc.getCollectionCount());
+      }
+      return total;
+   }
+
+   /**
+    * Returns the time spent in garbage collection so far, in milliseconds.
+    */
+   private static long collectionMillis() {
+      long total = 0;
+      for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+         total += Math.max(0, gc.getCollectionTime());
+      }
+      return total;
+   }
+
+   /**
+    * Formats a duration in nanoseconds with a readable unit.
+    */
+   private static String time(long nanos) {
+      if (nanos < 10_000) {
+         return nanos + " ns";
+      }
+      if (nanos < 10_000_000) {
+         return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+      }
+      if (nanos < 10_000_000_000L) {
+         return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+      }
+      return String.format(Locale.ROOT, "%.1f s", nanos / 1e9);
+   }
+
+   /**
+    * Formats a byte count with a readable unit.
+    */
+   private static String bytes(double b) {
+      if (b < 10_000) {
+         return String.format(Locale.ROOT, "%.0f B", b);
+      }
+      if (b < 10_000_000) {
+         return String.format(Locale.ROOT, "%.1f KB", b / 1024);
+      }
+      return String.format(Locale.ROOT, "%.1f MB", b / (1024 * 1024));
+   }
+
+}
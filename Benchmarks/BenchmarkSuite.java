@@ -0,0 +1,48 @@
+/**
+ * BenchmarkSuite.java. Runs the benchmarks for every module. Run it from
+ * the repository root with Benchmarks/run.sh, which compiles the modules
+ * and the benchmarks together.
+ *
+ * Usage: java BenchmarkSuite [-w warmupMillis] [-t measureMillis] [filter]
+ *
+ * Only benchmarks whose names contain filter are run.
+ */
+public final class BenchmarkSuite {
+
+   /** default time spent warming up each benchmark. */
+   private static final long WARMUP_MILLIS = 2_000;
+
+   /** default time spent measuring each benchmark. */
+   private static final long MEASURE_MILLIS = 5_000;
+
+   private BenchmarkSuite() { }
+
+   /** Drives execution. */
+   public static void main(String[] args) throws Exception {
+      long warmup = WARMUP_MILLIS;
+      long measure = MEASURE_MILLIS;
+      String filter = null;
+
+      for (int i = 0; i < args.length; i++) {
+         if (args[i].equals("-w") && i + 1 < args.length) {
+            warmup = Long.parseLong(args[++i]);
+         }
+         else if (args[i].equals("-t") && i + 1 < args.length) {
+            measure = Long.parseLong(args[++i]);
+         }
+         else {
+            filter = args[i];
+         }
+      }
+
+      Bench bench = new Bench(warmup, measure, filter);
+      SelectorBenchmark.run(bench);
+      ExtractorBenchmark.run(bench);
+      ListBenchmark.run(bench);
+      ConcurrencyBenchmark.run(bench);
+      WordSearchBenchmark.run(bench);
+      DoubletsBenchmark.run(bench);
+      MarkovBenchmark.run(bench);
+   }
+
+}
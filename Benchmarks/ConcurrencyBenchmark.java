@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ConcurrencyBenchmark.java. Benchmarks randomized lists shared by several
+ * threads. Each operation has every thread of a pool run a fixed number
+ * of list calls, half sample, a quarter add and a quarter remove, on one
+ * list that starts with a fixed number of elements, and waits for them
+ * all. The striped list is compared with an array list behind a single
+ * lock, so the times show how each scales with the number of threads.
+ * Throughput is in batches; each batch is threads * CALLS list calls.
+ */
+public final class ConcurrencyBenchmark {
+
+   /** numbers of threads measured. */
+   private static final int[] THREADS = {1, 2, 4, 8};
+
+   /** list calls made by each thread per operation. */
+   private static final int CALLS = 10_000;
+
+   /** elements in each list before it is measured. */
+   private static final int INITIAL_SIZE = 10_000;
+
+   private ConcurrencyBenchmark() { }
+
+   /**
+    * Runs every concurrency benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      for (int threads : THREADS) {
+         String name = " threads=" + threads + " calls=" + CALLS;
+         String striped = "StripedRandomizedList mixed" + name;
+         String locked = "Locked ArrayRandomizedList mixed" + name;
+         if (!bench.selected(striped) && !bench.selected(locked)) {
+            continue;
+         }
+
+         ExecutorService pool = Executors.newFixedThreadPool(threads);
+         try {
+            bench.run(striped, mixed(pool, threads, filled(new StripedRandomizedList<Integer>())));
+            bench.run(locked, mixed(pool, threads,
+               filled(new LockedRandomizedList<Integer>(new ArrayRandomizedList<Integer>()))));
+         }
+         finally {
+            pool.shutdown();
+         }
+      }
+   }
+
+   /**
+    * Adds INITIAL_SIZE elements to list and returns it.
+    */
+   private static RandomizedList<Integer> filled(RandomizedList<Integer> list) {
+      for (int i = 0; i < INITIAL_SIZE; i++) {
+         list.add(i);
+      }
+      return list;
+   }
+
+   /**
+    * Returns an operation that has threads tasks on pool each make CALLS
+    * mixed calls on list, and waits for them.
+    */
+   private static Callable<Integer> mixed(ExecutorService pool, int threads,
+         RandomizedList<Integer> list) {
+      List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+      for (int t = 0; t < threads; t++) {
+         tasks.add(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int sum = 0;
+            for (int i = 0; i < CALLS; i++) {
+               int choice = random.nextInt(4);
+               if (choice == 0) {
+                  list.add(i);
+               }
+               else {
+                  Integer v = choice == 1 ? list.remove() : list.sample();
+                  if (v != null) {
+                     sum += v;
+                  }
+               }
+            }
+            return sum;
+         });
+      }
+      return () -> {
+         int sum = 0;
+         for (Future<Integer> f : pool.invokeAll(tasks)) {
+            sum += f.get();
+         }
+         return sum;
+      };
+   }
+
+   /**
+    * A RandomizedList that makes every call on another one while holding
+    * a single lock, as a baseline for the striped list.
+    */
+   private static final class LockedRandomizedList<T> implements RandomizedList<T> {
+      private final RandomizedList<T> list;
+
+      LockedRandomizedList(RandomizedList<T> list) {
+         this.list = list;
+      }
+
+      public synchronized int size() {
+         return list.size();
+      }
+
+      public synchronized boolean isEmpty() {
+         return list.isEmpty();
+      }
+
+      public synchronized void add(T element) {
+         list.add(element);
+      }
+
+      public synchronized T remove() {
+         return list.remove();
+      }
+
+      public synchronized T sample() {
+         return list.sample();
+      }
+
+      public synchronized Iterator<T> iterator() {
+         return list.iterator();
+      }
+   }
+
+}
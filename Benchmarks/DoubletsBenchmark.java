@@ -0,0 +1,58 @@
+import java.io.File;
+import java.io.FileInputStream;
+
+/**
+ * DoubletsBenchmark.java. Benchmarks the word ladder game of Module06
+ * with the bundled lexicons.
+ */
+public final class DoubletsBenchmark {
+
+   /** lexicon files, relative to the repository root. */
+   private static final String[] LEXICONS = {
+      "Module05/wordfiles/words_small.txt",
+      "Module05/wordfiles/words_medium.txt",
+      WordSearchBenchmark.LEXICON,
+   };
+
+   /**
+    * lexicons larger than this many bytes are only loaded, not searched:
+    * every step of the ladder search scans the whole lexicon, so a single
+    * ladder over OWL takes tens of seconds.
+    */
+   private static final long LADDER_LIMIT = 2_000_000;
+
+   /** start and end words of the ladders measured. */
+   private static final String[][] LADDERS = {
+      {"cat", "dog"},
+      {"cold", "warm"},
+   };
+
+   private DoubletsBenchmark() { }
+
+   /**
+    * Runs every Doublets benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      for (String lexicon : LEXICONS) {
+         String name = lexicon.substring(lexicon.lastIndexOf('/') + 1);
+
+         bench.run("Doublets.<init> " + name,
+            () -> new Doublets(new FileInputStream(lexicon)));
+
+         if (new File(lexicon).length() > LADDER_LIMIT) {
+            continue;
+         }
+
+         Doublets game = new Doublets(new FileInputStream(lexicon));
+         for (String[] ladder : LADDERS) {
+            bench.run("Doublets.getMinLadder " + ladder[0] + "->" + ladder[1]
+               + " " + name,
+               () -> game.getMinLadder(ladder[0], ladder[1]));
+         }
+      }
+   }
+
+}
@@ -0,0 +1,170 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * ExtractorBenchmark.java. Benchmarks line extraction from Module03 on
+ * random point clouds. One point in eight lies on a planted line of
+ * five collinear points; the rest are scattered at random.
+ */
+public final class ExtractorBenchmark {
+
+   /** point counts measured. */
+   private static final int[] SIZES = {100, 400, 1_600, 6_400};
+
+   /** largest point count the sort-and-scan strategy is measured on. */
+   private static final int FAST_LIMIT = 1_600;
+
+   /** largest point count the brute-force strategy is measured on. */
+   private static final int BRUTE_LIMIT = 100;
+
+   /** point count of the files the loaders are measured on. */
+   private static final int FILE_SIZE = 200_000;
+
+   /** coordinates are drawn from [0, SPAN). */
+   private static final int SPAN = 32_768;
+
+   private ExtractorBenchmark() { }
+
+   /**
+    * Runs every Extractor benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      for (int n : SIZES) {
+         Extractor extractor = new Extractor(points(n, new Random(n)));
+         String size = " n=" + n;
+
+         bench.run("Extractor.getLinesHashed" + size,
+            () -> extractor.getLinesHashed());
+         bench.run("Extractor.getLinesHashed min=10" + size,
+            () -> extractor.getLinesHashed(10));
+         bench.run("Extractor.forEachLine" + size,
+            () -> {
+               int[] count = new int[1];
+               extractor.forEachLine(line -> count[0]++);
+               return count;
+            });
+         if (n <= FAST_LIMIT) {
+            bench.run("Extractor.getLinesFast" + size,
+               () -> extractor.getLinesFast());
+            bench.run("Extractor.getLinesFastParallel" + size,
+               () -> extractor.getLinesFastParallel());
+         }
+         if (n <= BRUTE_LIMIT) {
+            bench.run("Extractor.getLinesBrute" + size,
+               () -> extractor.getLinesBrute());
+         }
+      }
+
+      String load = " n=" + FILE_SIZE;
+      if (bench.selected("PointSet.read text" + load)
+            || bench.selected("PointSet.read binary" + load)
+            || bench.selected("Scanner text" + load)) {
+         Path text = Files.createTempFile("points", ".txt");
+         Path binary = Files.createTempFile("points", ".bin");
+         text.toFile().deleteOnExit();
+         binary.toFile().deleteOnExit();
+         List<Point> points = points(FILE_SIZE, new Random(FILE_SIZE));
+         writeText(text, points);
+         new PointSet(points).write(binary.toString());
+      
+         bench.run("Scanner text" + load, () -> scan(text.toFile()));
+         bench.run("PointSet.read text" + load, () -> PointSet.read(text.toString()));
+         bench.run("PointSet.read binary" + load, () -> PointSet.read(binary.toString()));
+      }
+
+      if (bench.selected("PointIndex")) {
+         PointSet cloud = new PointSet(points(FILE_SIZE, new Random(FILE_SIZE)));
+         PointIndex index = new PointIndex(cloud);
+         Random random = new Random(1);
+         bench.run("PointIndex build" + load, () -> new PointIndex(cloud));
+         bench.run("PointIndex.nearest k=10" + load,
+            () -> index.nearest(new Point(random.nextInt(SPAN), random.nextInt(SPAN)), 10));
+         bench.run("PointIndex.withinRadius r=256" + load,
+            () -> index.withinRadius(new Point(random.nextInt(SPAN), random.nextInt(SPAN)), 256));
+         bench.run("PointIndex.range 512x512" + load,
+            () -> {
+               int x = random.nextInt(SPAN);
+               int y = random.nextInt(SPAN);
+               return index.range(x, y, x + 511, y + 511);
+            });
+      }
+   }
+
+   /**
+    * Writes points to path as a text point file.
+    */
+   private static void writeText(Path path, List<Point> points) throws IOException {
+      try (BufferedWriter out = Files.newBufferedWriter(path)) {
+         out.write(points.size() + "\n");
+         for (Point p : points) {
+            out.write(p.x() + " " + p.y() + "\n");
+         }
+      }
+   }
+
+   /**
+    * Reads a text point file with a Scanner, the way Extractor used to.
+    */
+   private static Point[] scan(File file) throws IOException {
+      try (Scanner scan = new Scanner(file)) {
+         Point[] points = new Point[scan.nextInt()];
+         for (int i = 0; i < points.length; i++) {
+            points[i] = new Point(scan.nextInt(), scan.nextInt());
+         }
+         return points;
+      }
+   }
+
+   /**
+    * Returns n distinct points, with n / 8 of them on planted lines.
+    *
+    * @param n number of points
+    * @param random source of the coordinates
+    * @return the points
+    */
+   static List<Point> points(int n, Random random) {
+      // Point does not override hashCode, so distinct coordinates are
+      // tracked as packed longs.
+      Set<Long> seen = new HashSet<>();
+      List<Point> points = new ArrayList<>();
+      int lines = n / 40;
+      for (int i = 0; i < lines; i++) {
+         int dx = random.nextInt(21) - 10;
+         int dy = random.nextInt(11);
+         if (dx == 0 && dy == 0) {
+            dy = 1;
+         }
+         int x = SPAN / 2 + random.nextInt(SPAN / 4);
+         int y = random.nextInt(SPAN / 4);
+         for (int j = 0; j < 5; j++) {
+            add(points, seen, x + j * dx * 97, y + j * dy * 97);
+         }
+      }
+      while (points.size() < n) {
+         add(points, seen, random.nextInt(SPAN), random.nextInt(SPAN));
+      }
+      return points;
+   }
+
+   /**
+    * Adds the point (x, y) to points unless it is already there.
+    */
+   private static void add(List<Point> points, Set<Long> seen, int x, int y) {
+      if (seen.add(((long) x << 32) | y)) {
+         points.add(new Point(x, y));
+      }
+   }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * ListBenchmark.java. Benchmarks the list implementations of Module04.
+ * Each operation builds a list of n elements and then empties it, so
+ * the cost per element is the time shown divided by n.
+ */
+public final class ListBenchmark {
+
+   /** list lengths measured. */
+   private static final int[] SIZES = {1_000, 10_000};
+
+   private ListBenchmark() { }
+
+   /**
+    * Runs every list benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      for (int n : SIZES) {
+         Integer[] values = new Integer[n];
+         for (int i = 0; i < n; i++) {
+            values[i] = i;
+         }
+         String size = " n=" + n;
+
+         bench.run("NodeDoubleEndedList addFirst/removeFirst" + size,
+            () -> {
+               NodeDoubleEndedList<Integer> list = new NodeDoubleEndedList<>();
+               for (Integer v : values) {
+                  list.addFirst(v);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.removeFirst();
+               }
+               return sum;
+            });
+
+         bench.run("NodeDoubleEndedList addLast/removeLast" + size,
+            () -> {
+               NodeDoubleEndedList<Integer> list = new NodeDoubleEndedList<>();
+               for (Integer v : values) {
+                  list.addLast(v);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.removeLast();
+               }
+               return sum;
+            });
+
+         bench.run("ArrayDoubleEndedList addFirst/removeFirst" + size,
+            () -> {
+               ArrayDoubleEndedList<Integer> list = new ArrayDoubleEndedList<>();
+               for (Integer v : values) {
+                  list.addFirst(v);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.removeFirst();
+               }
+               return sum;
+            });
+
+         bench.run("ArrayDoubleEndedList addLast/removeLast" + size,
+            () -> {
+               ArrayDoubleEndedList<Integer> list = new ArrayDoubleEndedList<>();
+               for (Integer v : values) {
+                  list.addLast(v);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.removeLast();
+               }
+               return sum;
+            });
+
+         for (ListFactory.Storage storage : ListFactory.Storage.values()) {
+            DoubleEndedList<Integer> deque = ListFactory.makeDoubleEndedList(storage);
+            for (Integer v : values) {
+               deque.addLast(v);
+            }
+            bench.run("DoubleEndedList " + storage + " iterate" + size,
+               () -> {
+                  int sum = 0;
+                  for (Integer v : deque) {
+                     sum += v;
+                  }
+                  return sum;
+               });
+         }
+
+         bench.run("ArrayRandomizedList add/remove" + size,
+            () -> {
+               ArrayRandomizedList<Integer> list = new ArrayRandomizedList<>();
+               for (Integer v : values) {
+                  list.add(v);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.remove();
+               }
+               return sum;
+            });
+
+         java.util.List<Integer> batch = java.util.Arrays.asList(values);
+         bench.run("ArrayRandomizedList addAll/removeMany" + size,
+            () -> {
+               ArrayRandomizedList<Integer> list = new ArrayRandomizedList<>();
+               list.addAll(batch);
+               return list.removeMany(n);
+            });
+
+         ArrayRandomizedList<Integer> full = new ArrayRandomizedList<>();
+         for (Integer v : values) {
+            full.add(v);
+         }
+
+         bench.run("ArrayRandomizedList sample" + size, () -> full.sample());
+
+         bench.run("ArrayRandomizedList sample 100 with replacement" + size,
+            () -> full.sample(100, true));
+
+         bench.run("ArrayRandomizedList sample 100 without replacement" + size,
+            () -> full.sample(100, false));
+
+         bench.run("ArrayRandomizedList iterate" + size,
+            () -> {
+               int sum = 0;
+               for (Integer v : full) {
+                  sum += v;
+               }
+               return sum;
+            });
+
+         bench.run("FenwickRandomizedList add/remove" + size,
+            () -> {
+               FenwickRandomizedList<Integer> list = new FenwickRandomizedList<>();
+               for (Integer v : values) {
+                  list.add(v, v + 1);
+               }
+               int sum = 0;
+               while (!list.isEmpty()) {
+                  sum += list.remove();
+               }
+               return sum;
+            });
+
+         FenwickRandomizedList<Integer> weighted = new FenwickRandomizedList<>();
+         for (Integer v : values) {
+            weighted.add(v, v + 1);
+         }
+         java.util.SplittableRandom random = new java.util.SplittableRandom(1);
+
+         bench.run("FenwickRandomizedList sample" + size, () -> weighted.sample());
+
+         bench.run("FenwickRandomizedList setWeight" + size,
+            () -> {
+               Integer v = values[random.nextInt(n)];
+               weighted.setWeight(v, 1.0 + random.nextInt(n));
+               return v;
+            });
+      }
+   }
+
+}
@@ -0,0 +1,72 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * MarkovBenchmark.java. Benchmarks building and sampling the Markov
+ * model of Module07. The source text is the definitions from the OWL
+ * lexicon, cut to length.
+ */
+public final class MarkovBenchmark {
+
+   /** source text lengths measured. */
+   private static final int[] LENGTHS = {1_000, 4_000, 16_000};
+
+   /** model orders measured. */
+   private static final int[] ORDERS = {2, 6};
+
+   /** number of characters generated per operation. */
+   private static final int GENERATED = 1_000;
+
+   private MarkovBenchmark() { }
+
+   /**
+    * Runs every MarkovModel benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      String corpus = corpus(LENGTHS[LENGTHS.length - 1]);
+      for (int length : LENGTHS) {
+         String text = corpus.substring(0, length);
+         for (int k : ORDERS) {
+            String params = " k=" + k + " chars=" + length;
+
+            bench.run("MarkovModel.<init>" + params, () -> new MarkovModel(k, text));
+
+            MarkovModel model = new MarkovModel(k, text);
+            bench.run("MarkovModel.generate " + GENERATED + params,
+               () -> {
+                  String kgram = model.getRandomKgram();
+                  StringBuilder out = new StringBuilder(kgram);
+                  while (out.length() < GENERATED) {
+                     char c = model.getNextChar(kgram);
+                     out.append(c);
+                     kgram = kgram.substring(1) + c;
+                  }
+                  return out;
+               });
+         }
+      }
+   }
+
+   /**
+    * Returns the first length characters of the OWL definitions.
+    */
+   private static String corpus(int length) throws IOException {
+      StringBuilder text = new StringBuilder(length);
+      try (BufferedReader in = new BufferedReader(
+            new FileReader(WordSearchBenchmark.LEXICON))) {
+         String line;
+         while (text.length() < length && (line = in.readLine()) != null) {
+            int space = line.indexOf(' ');
+            if (space >= 0) {
+               text.append(line, space + 1, line.length()).append(' ');
+            }
+         }
+      }
+      return text.substring(0, Math.min(length, text.length()));
+   }
+
+}
@@ -0,0 +1,60 @@
+import java.util.Random;
+
+/**
+ * SelectorBenchmark.java. Benchmarks the selection methods of Module01
+ * over arrays of random ints. Values are drawn from [0, n) so that
+ * roughly a third of them are duplicates.
+ */
+public final class SelectorBenchmark {
+
+   /** array lengths measured. */
+   private static final int[] SIZES = {10_000, 1_000_000, 4_000_000};
+
+   private SelectorBenchmark() { }
+
+   /**
+    * Runs every Selector benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      for (int n : SIZES) {
+         int[] a = new Random(n).ints(n, 0, n).toArray();
+         int k = n / 4;
+         int low = n / 4;
+         int high = n / 2;
+         String size = " n=" + n;
+
+         bench.run("Selector.min" + size, () -> Selector.min(a));
+         bench.run("Selector.kmin" + size, () -> Selector.kmin(a, k));
+         bench.run("Selector.kmax" + size, () -> Selector.kmax(a, k));
+         bench.run("Selector.range" + size, () -> Selector.range(a, low, high));
+         bench.run("Selector.floor" + size, () -> Selector.floor(a, high));
+         bench.run("Selector.summarize keys=4" + size,
+            () -> Selector.summarize(a, low, high, k, n));
+
+         ParallelSelector parallel = new ParallelSelector();
+         bench.run("ParallelSelector.kmin" + size, () -> parallel.kmin(a, k));
+         bench.run("ParallelSelector.range" + size,
+            () -> parallel.range(a, low, high));
+
+         bench.run("SortedIntIndex.build" + size, () -> new SortedIntIndex(a));
+         if (bench.selected("SortedIntIndex.floor" + size)) {
+            SortedIntIndex index = new SortedIntIndex(a);
+            int[] keys = new Random(k).ints(1024, 0, n).toArray();
+            int[] next = new int[1];
+            bench.run("SortedIntIndex.floor" + size,
+               () -> index.floor(keys[next[0]++ & 1023]));
+         }
+
+         bench.run("StreamingSelector k=100" + size,
+            () -> {
+               StreamingSelector s = StreamingSelector.smallest(100);
+               s.acceptAll(a);
+               return s.select(100);
+            });
+      }
+   }
+
+}
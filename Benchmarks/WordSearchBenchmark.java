@@ -0,0 +1,57 @@
+import java.util.Random;
+
+/**
+ * WordSearchBenchmark.java. Benchmarks the word search game of Module05
+ * with the bundled OWL lexicon, on random boards whose letters follow
+ * their rough frequency in English.
+ */
+public final class WordSearchBenchmark {
+
+   /** lexicon file, relative to the repository root. */
+   static final String LEXICON = "Module05/wordfiles/OWL.txt";
+
+   /** board widths measured. */
+   private static final int[] WIDTHS = {4, 6, 8};
+
+   /** letters weighted by how often they appear in English text. */
+   private static final String LETTERS =
+      "EEEEEEEEEEEETTTTTTTTTAAAAAAAAOOOOOOOIIIIIIINNNNNNNSSSSSSRRRRRR"
+      + "HHHHHLLLLDDDDCCCUUUMMMFFPPGGWWYYBVKXJQZ";
+
+   private WordSearchBenchmark() { }
+
+   /**
+    * Runs every word search benchmark that passes the harness filter.
+    *
+    * @param bench harness to run the benchmarks on
+    * @throws Exception if a benchmark fails
+    */
+   public static void run(Bench bench) throws Exception {
+      bench.run("WordSearchClient.loadLexicon OWL",
+         () -> {
+            WordSearchGame game = new WordSearchClient();
+            game.loadLexicon(LEXICON);
+            return game;
+         });
+
+      WordSearchGame game = new WordSearchClient();
+      game.loadLexicon(LEXICON);
+      for (int width : WIDTHS) {
+         game.setBoard(board(width, new Random(width)));
+         bench.run("WordSearchClient.getAllValidWords min=4 " + width + "x" + width,
+            () -> game.getAllValidWords(4));
+      }
+   }
+
+   /**
+    * Returns a random width by width board in row-major order.
+    */
+   private static String[] board(int width, Random random) {
+      String[] board = new String[width * width];
+      for (int i = 0; i < board.length; i++) {
+         board[i] = String.valueOf(LETTERS.charAt(random.nextInt(LETTERS.length())));
+      }
+      return board;
+   }
+
+}
@@ -0,0 +1,21 @@
+#!/bin/sh
+# Compiles the coursework modules together with the benchmarks and runs
+# BenchmarkSuite from the repository root. Arguments are passed on to
+# BenchmarkSuite; JAVA_OPTS is passed to the JVM.
+#
+#   Benchmarks/run.sh                  run everything
+#   Benchmarks/run.sh -t 2000 Selector  only Selector benchmarks, 2 s each
+set -e
+cd "$(dirname "$0")/.."
+out="${TMPDIR:-/tmp}/cpsc1233-bench"
+rm -rf "$out"
+mkdir -p "$out"
+javac -nowarn -d "$out" \
+   Module01/*.java \
+   Module03/*.java \
+   $(ls Module04/*.java | grep -v RandomizedListArray.java) \
+   Module05/*.java \
+   Module06/*.java \
+   Module07/*.java \
+   Benchmarks/*.java
+exec java ${JAVA_OPTS:--Xmx2g} -cp "$out" BenchmarkSuite "$@"
@@ -0,0 +1,530 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+* Defines fork-join versions of the Selector methods for very large
+* arrays of ints. An array is split into chunks that are processed in
+* parallel on a ForkJoinPool. Arrays shorter than the threshold are
+* handed to Selector unchanged. Every method returns the same result
+* and throws the same exceptions as the Selector method of the same
+* name.
+*/
+public final class ParallelSelector {
+
+   /** default minimum array length, and chunk length, for parallel work. */
+   public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+   /** chunks created per worker thread, to even out uneven chunks. */
+   private static final int CHUNKS_PER_THREAD = 4;
+
+   /** pool that runs the chunks. */
+   private final ForkJoinPool pool;
+
+   /** arrays shorter than this are processed sequentially. */
+   private final int threshold;
+
+
+   /**
+    * Creates a parallel selector that uses the common pool and the
+    * default threshold.
+    */
+   public ParallelSelector() {
+      this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+   }
+
+
+   /**
+    * Creates a parallel selector that uses the common pool and the given
+    * threshold.
+    *
+    * @param threshold minimum array length for parallel work
+    * @throws IllegalArgumentException if threshold < 1
+    */
+   public ParallelSelector(int threshold) {
+      this(ForkJoinPool.commonPool(), threshold);
+   }
+
+
+   /**
+    * Creates a parallel selector that uses the given pool and threshold.
+    *
+    * @param pool pool that runs the parallel work
+    * @param threshold minimum array length for parallel work
+    * @throws IllegalArgumentException if pool is null or threshold < 1
+    */
+   public ParallelSelector(ForkJoinPool pool, int threshold) {
+      if (pool == null || threshold < 1) {
+         throw new IllegalArgumentException();
+      }
+      this.pool = pool;
+      this.threshold = threshold;
+   }
+
+
+   /**
+    * Selects the minimum value from the array a.
+    *
+    * @param a array to be searched
+    * @return minimum value in array
+    * @throws IllegalArgumentException if a is null or has zero length
+    * @see Selector#min(int[])
+    */
+   public int min(int[] a) {
+
+      if (a == null || a.length < threshold) {
+         return Selector.min(a);
+      }
+
+      int chunks = chunks(a.length);
+      int[] mins = new int[chunks];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int minValue = a[bound(a.length, chunks, c)];
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               minValue = Math.min(minValue, a[j]);
+            }
+            mins[c] = minValue;
+         });
+
+      int minValue = mins[0];
+      for (int c = 1; c < chunks; c++) {
+         minValue = Math.min(minValue, mins[c]);
+      }
+      return minValue;
+   }
+
+
+   /**
+    * Selects the maximum value from the array a.
+    *
+    * @param a array to be searched
+    * @return maximum value in array
+    * @throws IllegalArgumentException if a is null or has zero length
+    * @see Selector#max(int[])
+    */
+   public int max(int[] a) {
+
+      if (a == null || a.length < threshold) {
+         return Selector.max(a);
+      }
+
+      int chunks = chunks(a.length);
+      int[] maxes = new int[chunks];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int maxValue = a[bound(a.length, chunks, c)];
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               maxValue = Math.max(maxValue, a[j]);
+            }
+            maxes[c] = maxValue;
+         });
+
+      int maxValue = maxes[0];
+      for (int c = 1; c < chunks; c++) {
+         maxValue = Math.max(maxValue, maxes[c]);
+      }
+      return maxValue;
+   }
+
+
+   /**
+    * Selects the kth minimum distinct value from the array a.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth minimum value in array
+    * @throws IllegalArgumentException as specified by Selector.kmin
+    * @see Selector#kmin(int[], int)
+    */
+   public int kmin(int[] a, int k) {
+
+      if (a == null || a.length < threshold || k > a.length || k <= 0) {
+         return Selector.kmin(a, k);
+      }
+
+      int[][] buffers = new int[2][];
+      int distinctVal = distinct(a, buffers);
+
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+
+      return select(buffers, distinctVal, k - 1);
+   }
+
+
+   /**
+    * Selects the kth maximum distinct value from the array a.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth maximum value in array
+    * @throws IllegalArgumentException as specified by Selector.kmax
+    * @see Selector#kmax(int[], int)
+    */
+   public int kmax(int[] a, int k) {
+
+      if (a == null || a.length < threshold || k > a.length || k <= 0) {
+         return Selector.kmax(a, k);
+      }
+
+      int[][] buffers = new int[2][];
+      int distinctVal = distinct(a, buffers);
+
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+
+      return select(buffers, distinctVal, distinctVal - k);
+   }
+
+
+   /**
+    * Returns an array containing all the values in a in the range
+    * [low..high], including duplicate values, in the order they appear
+    * in a. Each chunk counts its matches in parallel, the counts give
+    * each chunk its place in the result, and the chunks then copy their
+    * matches into place in parallel.
+    *
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return array of elements that fit in the range
+    * @throws IllegalArgumentException if a is null or has zero length
+    * @see Selector#range(int[], int, int)
+    */
+   public int[] range(int[] a, int low, int high) {
+
+      if (a == null || a.length < threshold) {
+         return Selector.range(a, low, high);
+      }
+
+      int chunks = chunks(a.length);
+      int[] offsets = new int[chunks + 1];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int count = 0;
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               count += (a[j] >= low && a[j] <= high) ? 1 : 0;
+            }
+            offsets[c + 1] = count;
+         });
+
+      for (int c = 0; c < chunks; c++) {
+         offsets[c + 1] += offsets[c];
+      }
+
+      int[] b = new int[offsets[chunks]];
+      forEachChunk(chunks,
+         c -> {
+            int i = offsets[c];
+            for (int j = bound(a.length, chunks, c); i < offsets[c + 1]; j++) {
+               if (a[j] >= low && a[j] <= high) {
+                  b[i++] = a[j];
+               }
+            }
+         });
+      return b;
+   }
+
+
+   /**
+    * Returns the smallest value in a that is greater than or equal to
+    * the given key.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next greater value in array
+    * @throws IllegalArgumentException as specified by Selector.ceiling
+    * @see Selector#ceiling(int[], int)
+    */
+   public int ceiling(int[] a, int key) {
+
+      if (a == null || a.length < threshold) {
+         return Selector.ceiling(a, key);
+      }
+
+      int chunks = chunks(a.length);
+      int[] ceilings = new int[chunks];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int i = Integer.MAX_VALUE;
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               if (a[j] < i && a[j] >= key) {
+                  i = a[j];
+               }
+            }
+            ceilings[c] = i;
+         });
+
+      int i = Integer.MAX_VALUE;
+      for (int c = 0; c < chunks; c++) {
+         i = Math.min(i, ceilings[c]);
+      }
+
+      if (i == Integer.MAX_VALUE) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Returns the largest value in a that is less than or equal to the
+    * given key.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next smaller value in array
+    * @throws IllegalArgumentException as specified by Selector.floor
+    * @see Selector#floor(int[], int)
+    */
+   public int floor(int[] a, int key) {
+
+      if (a == null || a.length < threshold) {
+         return Selector.floor(a, key);
+      }
+
+      int chunks = chunks(a.length);
+      int[] floors = new int[chunks];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int i = Integer.MIN_VALUE;
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               if (a[j] > i && a[j] <= key) {
+                  i = a[j];
+               }
+            }
+            floors[c] = i;
+         });
+
+      int i = Integer.MIN_VALUE;
+      for (int c = 0; c < chunks; c++) {
+         i = Math.max(i, floors[c]);
+      }
+
+      if (i == Integer.MIN_VALUE) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Gathers the distinct values of a into buffers[0] and returns how
+    * many there are. The values are first scattered into one bucket per
+    * chunk by hash, so equal values always share a bucket. Each bucket
+    * is then deduplicated on its own, in parallel. buffers[1] is set to
+    * a spare array at least as long as buffers[0] for select to use.
+    *
+    * @param a values to be deduplicated
+    * @param buffers receives the distinct values and the spare array
+    * @return number of distinct values
+    */
+   private int distinct(int[] a, int[][] buffers) {
+      int chunks = chunks(a.length);
+      int shift = Integer.numberOfLeadingZeros(chunks - 1);
+      int buckets = shift == 32 ? 1 : 1 << (32 - shift);
+
+      // counts[c][t] is how many values of chunk c fall in bucket t.
+      int[][] counts = new int[chunks][buckets];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int[] count = counts[c];
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               count[bucket(a[j], shift)]++;
+            }
+         });
+
+      // Turn the counts into the place where each chunk starts writing
+      // in each bucket, laying the buckets out one after another.
+      int[] bucketStart = new int[buckets + 1];
+      int offset = 0;
+      for (int t = 0; t < buckets; t++) {
+         bucketStart[t] = offset;
+         for (int c = 0; c < chunks; c++) {
+            int count = counts[c][t];
+            counts[c][t] = offset;
+            offset += count;
+         }
+      }
+      bucketStart[buckets] = offset;
+
+      int[] scattered = new int[a.length];
+      forEachChunk(chunks,
+         c -> {
+            int to = bound(a.length, chunks, c + 1);
+            int[] next = counts[c];
+            for (int j = bound(a.length, chunks, c); j < to; j++) {
+               scattered[next[bucket(a[j], shift)]++] = a[j];
+            }
+         });
+
+      // Deduplicate each bucket back into its own place in scattered.
+      int[] distinctCounts = new int[buckets + 1];
+      forEachChunk(buckets,
+         t -> {
+            int from = bucketStart[t];
+            int to = bucketStart[t + 1];
+            int[] table = new int[Selector.scratchLength(to - from)];
+            int count = Selector.distinct(scattered, from, to, table);
+            System.arraycopy(table, 0, scattered, from, count);
+            distinctCounts[t + 1] = count;
+         });
+      for (int t = 0; t < buckets; t++) {
+         distinctCounts[t + 1] += distinctCounts[t];
+      }
+
+      int[] values = new int[distinctCounts[buckets]];
+      forEachChunk(buckets,
+         t -> System.arraycopy(scattered, bucketStart[t], values,
+               distinctCounts[t], distinctCounts[t + 1] - distinctCounts[t]));
+
+      buffers[0] = values;
+      buffers[1] = scattered;
+      return values.length;
+   }
+
+
+   /**
+    * Returns the value of rank r (0-based) among the n distinct values
+    * in buffers[0]. While the candidates are at least threshold long,
+    * each round partitions them in parallel by counting and scattering
+    * into the other buffer. The remaining candidates are handed to the
+    * sequential selection in Selector, as are any left after the
+    * allowed number of parallel rounds.
+    *
+    * @param buffers distinct values and a spare array at least as long
+    * @param n number of distinct values
+    * @param r rank of the value to select
+    * @return value of rank r
+    */
+   private int select(int[][] buffers, int n, int r) {
+      int[] from = buffers[0];
+      int[] to = buffers[1];
+      int lo = 0;
+      int hi = n - 1;
+      int rounds = Selector.selectDepth(n);
+
+      while (hi - lo + 1 >= threshold && rounds-- > 0) {
+         int size = hi - lo + 1;
+         int base = lo;
+         int[] src = from;
+         int[] dst = to;
+         int pivot = median(src[lo], src[lo + size / 2], src[hi]);
+
+         int chunks = chunks(size);
+         int[] less = new int[chunks + 1];
+         int[] more = new int[chunks + 1];
+         forEachChunk(chunks,
+            c -> {
+               int end = base + bound(size, chunks, c + 1);
+               int below = 0;
+               int above = 0;
+               for (int j = base + bound(size, chunks, c); j < end; j++) {
+                  below += src[j] < pivot ? 1 : 0;
+                  above += src[j] > pivot ? 1 : 0;
+               }
+               less[c + 1] = below;
+               more[c + 1] = above;
+            });
+         for (int c = 0; c < chunks; c++) {
+            less[c + 1] += less[c];
+            more[c + 1] += more[c];
+         }
+
+         int m = base + less[chunks];
+         forEachChunk(chunks,
+            c -> {
+               int end = base + bound(size, chunks, c + 1);
+               int i = base + less[c];
+               int k = m + 1 + more[c];
+               for (int j = base + bound(size, chunks, c); j < end; j++) {
+                  if (src[j] < pivot) {
+                     dst[i++] = src[j];
+                  }
+                  else if (src[j] > pivot) {
+                     dst[k++] = src[j];
+                  }
+               }
+            });
+         dst[m] = pivot;
+
+         if (r == m) {
+            return pivot;
+         }
+         if (r < m) {
+            hi = m - 1;
+         }
+         else {
+            lo = m + 1;
+         }
+         from = dst;
+         to = src;
+      }
+
+      return Selector.select(from, lo, hi, r, Selector.selectDepth(hi - lo + 1));
+   }
+
+
+   /**
+    * Returns the number of chunks to split n values into: enough to keep
+    * every worker busy, but none shorter than threshold where possible.
+    */
+   private int chunks(int n) {
+      long byLength = ((long) n + threshold - 1) / threshold;
+      long byThreads = (long) pool.getParallelism() * CHUNKS_PER_THREAD;
+      return (int) Math.max(1, Math.min(byLength, byThreads));
+   }
+
+
+   /**
+    * Runs body once for each chunk index in [0..chunks) on the pool and
+    * waits for all of them to finish.
+    */
+   private void forEachChunk(int chunks, IntConsumer body) {
+      List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(chunks);
+      for (int c = 0; c < chunks; c++) {
+         int chunk = c;
+         tasks.add(ForkJoinTask.adapt(() -> body.accept(chunk)));
+      }
+      pool.invoke(ForkJoinTask.adapt(() -> {
+         ForkJoinTask.invokeAll(tasks);
+      }));
+   }
+
+
+   /**
+    * Returns the index where chunk c of n values split into the given
+    * number of chunks begins. Chunk c ends where chunk c + 1 begins.
+    */
+   private static int bound(int n, int chunks, int c) {
+      return (int) ((long) n * c / chunks);
+   }
+
+
+   /**
+    * Returns the bucket, out of 2^(32 - shift), that value belongs to.
+    */
+   private static int bucket(int value, int shift) {
+      return shift == 32 ? 0 : Selector.hash(value) >>> shift;
+   }
+
+
+   /**
+    * Returns the median of three distinct values.
+    */
+   private static int median(int x, int y, int z) {
+      return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+   }
+
+}
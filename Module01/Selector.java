@@ -1,8 +1,13 @@
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
 * Defines a library of selection methods
-* on arrays of ints.
+* on arrays of ints, longs and doubles,
+* and on arrays and lists of objects.
 *
 * @author   Tom Fenyak (tjf0027@auburn.edu)
 * @author   Dean Hendrix (dh@auburn.edu)
@@ -89,39 +94,18 @@ public final class Selector {
          throw new IllegalArgumentException();
       }
    
-      int distinctVal = 1;
-      int[] b = Arrays.copyOf(a, a.length);
-      int cLength = b.length;
-   
       if (a.length == 1) {
          return a[0];
       }
    
-      Arrays.sort(b);
-      for (int i = 1; i < b.length; i++) {
-         if (b[i] != b[i - 1]) {
-            distinctVal++;
-         }
-         else {
-            cLength--;
-         }
-      }
+      int[] b = new int[scratchLength(a.length)];
+      int distinctVal = distinct(a, 0, a.length, b);
    
       if (k > distinctVal) {
          throw new IllegalArgumentException();
       }
    
-      int[] c = new int[cLength];
-      Arrays.sort(b);
-      c[0] = b[0];
-      int cIndex = 1;
-      for (int i = 1; i < b.length; i++) {
-         if (b[i] != b[i - 1]) {
-            c[cIndex++] = b[i];
-         }
-      }
-      int kmin = c[k - 1];
-      return kmin;
+      return select(b, 0, distinctVal - 1, k - 1, selectDepth(distinctVal));
    }
 
 
@@ -143,39 +127,19 @@ public final class Selector {
          throw new IllegalArgumentException();
       }
      
-      int distinctVal = 1;
-      int[] b = Arrays.copyOf(a, a.length);
-      int cLength = b.length;
-     
       if (a.length == 1) {
          return a[0];
       }
      
-      Arrays.sort(b);
-      for (int i = 1; i < b.length; i++) {
-         if (b[i] != b[i - 1]) {
-            distinctVal++;
-         }
-         else {
-            cLength--;
-         }
-      }
+      int[] b = new int[scratchLength(a.length)];
+      int distinctVal = distinct(a, 0, a.length, b);
      
       if (k > distinctVal) {
          throw new IllegalArgumentException();
       }
      
-      int[] c = new int[cLength];
-      Arrays.sort(b);
-      c[0] = b[0];
-      int cIndex = 1;
-      for (int i = 1; i < b.length; i++) {
-         if (b[i] != b[i - 1]) {
-            c[cIndex++] = b[i];
-         }
-      }
-      int kmax = c[c.length - k];
-      return kmax;
+      return select(b, 0, distinctVal - 1, distinctVal - k,
+         selectDepth(distinctVal));
    }
 
 
@@ -204,16 +168,15 @@ public final class Selector {
       }
       
       int arrayLength = 0;
-      int[] b = {};
-      int i = 0;
       for (int j = 0; j < a.length; j++) {
          if (a[j] >= low && a[j] <= high) {
             arrayLength++;
-            b = new int[arrayLength];
          }
       }
       
-      for (int j = 0; j < a.length; j++) {
+      int[] b = new int[arrayLength];
+      int i = 0;
+      for (int j = 0; i < arrayLength; j++) {
          if (a[j] >= low && a[j] <= high) {
             b[i++] = a[j];
          }
@@ -223,6 +186,64 @@ public final class Selector {
    }
 
 
+   /**
+    * Passes each value in a that is in the range [low..high] to the
+    * given action, in the order the values appear in a and including
+    * duplicate values. No result array is built. Note that low and high
+    * do not have to be actual values in a. This method throws an
+    * IllegalArgumentException if a is null or has zero length, or if
+    * action is null. The array a is not changed by this method.
+    *
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @param action receives each value that fits in the range
+    * @return number of values passed to action
+    * @throws IllegalArgumentException as specified above
+    */
+   public static int range(int[] a, int low, int high, IntConsumer action) {
+      
+      if (a == null || a.length == 0 || action == null) {
+         throw new IllegalArgumentException();
+      }
+      
+      int count = 0;
+      for (int j = 0; j < a.length; j++) {
+         int value = a[j];
+         if (value >= low && value <= high) {
+            action.accept(value);
+            count++;
+         }
+      }
+      return count;
+   }
+
+
+   /**
+    * Returns a lazy stream of the values in a that are in the range
+    * [low..high], in the order the values appear in a and including
+    * duplicate values. The array is scanned only as the stream is
+    * consumed, so changes made to a before then are seen by the
+    * stream. This method throws an IllegalArgumentException if a is
+    * null or has zero length. The array a is not changed by this
+    * method.
+    *
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return stream of elements that fit in the range
+    * @throws IllegalArgumentException as specified above
+    */
+   public static IntStream rangeStream(int[] a, int low, int high) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      return Arrays.stream(a).filter(value -> value >= low && value <= high);
+   }
+
+
    /**
     * Returns the smallest value in a that is greater than or equal to
     * the given key. This method throws an IllegalArgumentException if
@@ -288,4 +309,1360 @@ public final class Selector {
       return i;
    }
 
+
+   /**
+    * Computes the minimum, the maximum, and the floor and ceiling of
+    * every key in keys, all in a single pass over a. Calling min, max,
+    * floor and ceiling separately would read a once per call. The
+    * summary's floor and ceiling throw only when no value qualifies, so
+    * unlike floor and ceiling here they can return Integer.MIN_VALUE and
+    * Integer.MAX_VALUE. This method throws an IllegalArgumentException if
+    * a is null or has zero length, or if keys is null. Neither array is
+    * changed by this method.
+    *
+    * @param a array to be searched through
+    * @param keys reference values for floor and ceiling
+    * @return summary of a with respect to keys
+    * @throws IllegalArgumentException as specified above
+    */
+   public static Summary summarize(int[] a, int... keys) {
+      
+      if (a == null || a.length == 0 || keys == null) {
+         throw new IllegalArgumentException();
+      }
+      
+      int[] k = Arrays.copyOf(keys, keys.length);
+      int[] floors = new int[k.length];
+      int[] ceilings = new int[k.length];
+      Arrays.fill(floors, Integer.MIN_VALUE);
+      Arrays.fill(ceilings, Integer.MAX_VALUE);
+      
+      int minValue = a[0];
+      int maxValue = a[0];
+      
+      // Work through a in blocks small enough to stay in the L1 cache, so
+      // each key's loop re-reads cached data instead of main memory. The
+      // loop bodies use only min, max and conditional selects, with no
+      // branches, so the JIT can use conditional moves or vector code.
+      int end;
+      for (int start = 0; start < a.length; start = end) {
+         end = start + Math.min(SUMMARY_BLOCK, a.length - start);
+      
+         for (int j = start; j < end; j++) {
+            minValue = Math.min(minValue, a[j]);
+            maxValue = Math.max(maxValue, a[j]);
+         }
+      
+         for (int i = 0; i < k.length; i++) {
+            int key = k[i];
+            int f = floors[i];
+            int c = ceilings[i];
+            for (int j = start; j < end; j++) {
+               int value = a[j];
+               f = Math.max(f, value <= key ? value : Integer.MIN_VALUE);
+               c = Math.min(c, value >= key ? value : Integer.MAX_VALUE);
+            }
+            floors[i] = f;
+            ceilings[i] = c;
+         }
+      }
+      
+      return new Summary(a.length, minValue, maxValue, k, floors, ceilings);
+   }
+
+   /**
+    * Selects the minimum value from the array a. This method
+    * throws IllegalArgumentException if a is null or has zero
+    * length. The array a is not changed by this method.
+    *
+    * @param a array to be searched
+    * @return minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long min(long[] a) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long minValue = a[0];
+      for (int i = 1; i < a.length; i++) {
+         minValue = Math.min(minValue, a[i]);
+      }
+      return minValue;
+   }
+
+
+   /**
+    * Selects the maximum value from the array a. This method
+    * throws IllegalArgumentException if a is null or has zero
+    * length. The array a is not changed by this method.
+    *
+    * @param a array to be searched
+    * @return maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long max(long[] a) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long maxValue = a[0];
+      for (int i = 1; i < a.length; i++) {
+         maxValue = Math.max(maxValue, a[i]);
+      }
+      return maxValue;
+   }
+
+
+   /**
+    * Selects the kth minimum distinct value from the array a. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmin on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long kmin(long[] a, int k) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long[] b = new long[scratchLength(a.length)];
+      int distinctVal = distinct(a, b);
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      
+      return select(b, 0, distinctVal - 1, k - 1, selectDepth(distinctVal));
+   }
+
+
+   /**
+    * Selects the kth maximum distinct value from the array a. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmax on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long kmax(long[] a, int k) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long[] b = new long[scratchLength(a.length)];
+      int distinctVal = distinct(a, b);
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      
+      return select(b, 0, distinctVal - 1, distinctVal - k,
+         selectDepth(distinctVal));
+   }
+
+
+   /**
+    * Returns an array containing all the values in a in the range
+    * [low..high], including duplicate values, in the order they appear
+    * in a. If there are no qualifying values, this method returns a
+    * zero-length array. This method throws an IllegalArgumentException
+    * if a is null or has zero length. The array a is not changed by
+    * this method.
+    *
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return array of elements that fit in the range
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long[] range(long[] a, long low, long high) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      int arrayLength = 0;
+      for (int j = 0; j < a.length; j++) {
+         if (a[j] >= low && a[j] <= high) {
+            arrayLength++;
+         }
+      }
+      
+      long[] b = new long[arrayLength];
+      int i = 0;
+      for (int j = 0; i < arrayLength; j++) {
+         if (a[j] >= low && a[j] <= high) {
+            b[i++] = a[j];
+         }
+      }
+      return b;
+   }
+
+
+   /**
+    * Returns the smallest value in a that is greater than or equal to
+    * the given key. This method throws an IllegalArgumentException if
+    * a is null or has zero length, or if there is no qualifying value.
+    * The array a is not changed by this method.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next greater value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long ceiling(long[] a, long key) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      boolean found = false;
+      long i = Long.MAX_VALUE;
+      for (int j = 0; j < a.length; j++) {
+         if (a[j] >= key) {
+            found = true;
+            i = Math.min(i, a[j]);
+         }
+      }
+      
+      if (!found) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Returns the largest value in a that is less than or equal to the
+    * given key. This method throws an IllegalArgumentException if a is
+    * null or has zero length, or if there is no qualifying value. The
+    * array a is not changed by this method.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next smaller value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static long floor(long[] a, long key) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      boolean found = false;
+      long i = Long.MIN_VALUE;
+      for (int j = 0; j < a.length; j++) {
+         if (a[j] <= key) {
+            found = true;
+            i = Math.max(i, a[j]);
+         }
+      }
+      
+      if (!found) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Selects the minimum value from the array a. Doubles are ordered
+    * as by Double.compare, so -0.0 is less than 0.0 and NaN is greater
+    * than every other value. This method throws
+    * IllegalArgumentException if a is null or has zero length. The
+    * array a is not changed by this method.
+    *
+    * @param a array to be searched
+    * @return minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double min(double[] a) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long minKey = sortableKey(a[0]);
+      for (int i = 1; i < a.length; i++) {
+         minKey = Math.min(minKey, sortableKey(a[i]));
+      }
+      return fromSortableKey(minKey);
+   }
+
+
+   /**
+    * Selects the maximum value from the array a. Doubles are ordered
+    * as by Double.compare. This method throws IllegalArgumentException
+    * if a is null or has zero length. The array a is not changed by
+    * this method.
+    *
+    * @param a array to be searched
+    * @return maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double max(double[] a) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long maxKey = sortableKey(a[0]);
+      for (int i = 1; i < a.length; i++) {
+         maxKey = Math.max(maxKey, sortableKey(a[i]));
+      }
+      return fromSortableKey(maxKey);
+   }
+
+
+   /**
+    * Selects the kth minimum distinct value from the array a. Doubles
+    * are ordered, and counted as distinct, as by Double.compare. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmin on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double kmin(double[] a, int k) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long[] b = new long[scratchLength(a.length)];
+      int distinctVal = distinct(a, b);
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      
+      return fromSortableKey(select(b, 0, distinctVal - 1, k - 1,
+         selectDepth(distinctVal)));
+   }
+
+
+   /**
+    * Selects the kth maximum distinct value from the array a. Doubles
+    * are ordered, and counted as distinct, as by Double.compare. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmax on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param a array to be searched
+    * @param k k-selection value
+    * @return kth maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double kmax(double[] a, int k) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long[] b = new long[scratchLength(a.length)];
+      int distinctVal = distinct(a, b);
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      
+      return fromSortableKey(select(b, 0, distinctVal - 1, distinctVal - k,
+         selectDepth(distinctVal)));
+   }
+
+
+   /**
+    * Returns an array containing all the values in a in the range
+    * [low..high], including duplicate values, in the order they appear
+    * in a. Doubles are ordered as by Double.compare. If there are no
+    * qualifying values, this method returns a zero-length array. This
+    * method throws an IllegalArgumentException if a is null or has zero
+    * length. The array a is not changed by this method.
+    *
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return array of elements that fit in the range
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double[] range(double[] a, double low, double high) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long lowKey = sortableKey(low);
+      long highKey = sortableKey(high);
+      int arrayLength = 0;
+      for (int j = 0; j < a.length; j++) {
+         long key = sortableKey(a[j]);
+         if (key >= lowKey && key <= highKey) {
+            arrayLength++;
+         }
+      }
+      
+      double[] b = new double[arrayLength];
+      int i = 0;
+      for (int j = 0; i < arrayLength; j++) {
+         long key = sortableKey(a[j]);
+         if (key >= lowKey && key <= highKey) {
+            b[i++] = a[j];
+         }
+      }
+      return b;
+   }
+
+
+   /**
+    * Returns the smallest value in a that is greater than or equal to
+    * the given key. Doubles are ordered as by Double.compare. This
+    * method throws an IllegalArgumentException if a is null or has
+    * zero length, or if there is no qualifying value. The array a is
+    * not changed by this method.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next greater value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double ceiling(double[] a, double key) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long target = sortableKey(key);
+      boolean found = false;
+      long i = Long.MAX_VALUE;
+      for (int j = 0; j < a.length; j++) {
+         long k = sortableKey(a[j]);
+         if (k >= target) {
+            found = true;
+            i = Math.min(i, k);
+         }
+      }
+      
+      if (!found) {
+         throw new IllegalArgumentException();
+      }
+      return fromSortableKey(i);
+   }
+
+
+   /**
+    * Returns the largest value in a that is less than or equal to the
+    * given key. Doubles are ordered as by Double.compare. This method
+    * throws an IllegalArgumentException if a is null or has zero
+    * length, or if there is no qualifying value. The array a is not
+    * changed by this method.
+    *
+    * @param a array to be searched through
+    * @param key reference value
+    * @return next smaller value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static double floor(double[] a, double key) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      long target = sortableKey(key);
+      boolean found = false;
+      long i = Long.MIN_VALUE;
+      for (int j = 0; j < a.length; j++) {
+         long k = sortableKey(a[j]);
+         if (k <= target) {
+            found = true;
+            i = Math.max(i, k);
+         }
+      }
+      
+      if (!found) {
+         throw new IllegalArgumentException();
+      }
+      return fromSortableKey(i);
+   }
+
+
+   /**
+    * Selects the minimum value from the array a, using the order
+    * imposed by c. If c is null the natural ordering of the values is
+    * used. This method throws IllegalArgumentException if a is null or
+    * has zero length. The array a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched
+    * @param c comparator that orders the values, or null
+    * @return minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T min(T[] a, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      Comparator<? super T> order = orderOf(c);
+      T minValue = a[0];
+      for (int i = 1; i < a.length; i++) {
+         if (order.compare(a[i], minValue) < 0) {
+            minValue = a[i];
+         }
+      }
+      return minValue;
+   }
+
+
+   /**
+    * Selects the maximum value from the array a, using the order
+    * imposed by c. If c is null the natural ordering of the values is
+    * used. This method throws IllegalArgumentException if a is null or
+    * has zero length. The array a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched
+    * @param c comparator that orders the values, or null
+    * @return maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T max(T[] a, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      Comparator<? super T> order = orderOf(c);
+      T maxValue = a[0];
+      for (int i = 1; i < a.length; i++) {
+         if (order.compare(a[i], maxValue) > 0) {
+            maxValue = a[i];
+         }
+      }
+      return maxValue;
+   }
+
+
+   /**
+    * Selects the kth minimum distinct value from the array a, using the
+    * order imposed by c. Values that c finds equal count as one value.
+    * If c is null the natural ordering of the values is used. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmin on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched
+    * @param k k-selection value
+    * @param c comparator that orders the values, or null
+    * @return kth minimum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T kmin(T[] a, int k, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      T[] b = Arrays.copyOf(a, a.length);
+      int distinctVal = distinct(b, orderOf(c));
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      return b[k - 1];
+   }
+
+
+   /**
+    * Selects the kth maximum distinct value from the array a, using the
+    * order imposed by c. Values that c finds equal count as one value.
+    * If c is null the natural ordering of the values is used. This
+    * method throws IllegalArgumentException under the same conditions
+    * as kmax on an array of ints. The array a is not changed by this
+    * method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched
+    * @param k k-selection value
+    * @param c comparator that orders the values, or null
+    * @return kth maximum value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T kmax(T[] a, int k, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0 || k > a.length || k <= 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      T[] b = Arrays.copyOf(a, a.length);
+      int distinctVal = distinct(b, orderOf(c));
+      
+      if (k > distinctVal) {
+         throw new IllegalArgumentException();
+      }
+      return b[distinctVal - k];
+   }
+
+
+   /**
+    * Returns an array containing all the values in a in the range
+    * [low..high] under the order imposed by c, including duplicate
+    * values, in the order they appear in a. If c is null the natural
+    * ordering of the values is used. If there are no qualifying values,
+    * this method returns a zero-length array. This method throws an
+    * IllegalArgumentException if a is null or has zero length. The
+    * array a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @param c comparator that orders the values, or null
+    * @return array of elements that fit in the range
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T[] range(T[] a, T low, T high, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      Comparator<? super T> order = orderOf(c);
+      T[] b = Arrays.copyOf(a, a.length);
+      int i = 0;
+      for (int j = 0; j < a.length; j++) {
+         if (order.compare(a[j], low) >= 0 && order.compare(a[j], high) <= 0) {
+            b[i++] = a[j];
+         }
+      }
+      return Arrays.copyOf(b, i);
+   }
+
+
+   /**
+    * Returns the smallest value in a that is greater than or equal to
+    * the given key under the order imposed by c. If c is null the
+    * natural ordering of the values is used. This method throws an
+    * IllegalArgumentException if a is null or has zero length, or if
+    * there is no qualifying value. The array a is not changed by this
+    * method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched through
+    * @param key reference value
+    * @param c comparator that orders the values, or null
+    * @return next greater value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T ceiling(T[] a, T key, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      Comparator<? super T> order = orderOf(c);
+      T i = null;
+      for (int j = 0; j < a.length; j++) {
+         if (order.compare(a[j], key) >= 0
+            && (i == null || order.compare(a[j], i) < 0)) {
+            i = a[j];
+         }
+      }
+      
+      if (i == null) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Returns the largest value in a that is less than or equal to the
+    * given key under the order imposed by c. If c is null the natural
+    * ordering of the values is used. This method throws an
+    * IllegalArgumentException if a is null or has zero length, or if
+    * there is no qualifying value. The array a is not changed by this
+    * method.
+    *
+    * @param <T> type of the values
+    * @param a array to be searched through
+    * @param key reference value
+    * @param c comparator that orders the values, or null
+    * @return next smaller value in array
+    * @throws IllegalArgumentException as specified above
+    */
+   public static <T> T floor(T[] a, T key, Comparator<? super T> c) {
+      
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+      
+      Comparator<? super T> order = orderOf(c);
+      T i = null;
+      for (int j = 0; j < a.length; j++) {
+         if (order.compare(a[j], key) <= 0
+            && (i == null || order.compare(a[j], i) > 0)) {
+            i = a[j];
+         }
+      }
+      
+      if (i == null) {
+         throw new IllegalArgumentException();
+      }
+      return i;
+   }
+
+
+   /**
+    * Selects the minimum value from the list a, as min does for an
+    * array. The list a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched
+    * @param c comparator that orders the values, or null
+    * @return minimum value in list
+    * @throws IllegalArgumentException if a is null or empty
+    */
+   public static <T> T min(List<T> a, Comparator<? super T> c) {
+      return min(toArray(a), c);
+   }
+
+
+   /**
+    * Selects the maximum value from the list a, as max does for an
+    * array. The list a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched
+    * @param c comparator that orders the values, or null
+    * @return maximum value in list
+    * @throws IllegalArgumentException if a is null or empty
+    */
+   public static <T> T max(List<T> a, Comparator<? super T> c) {
+      return max(toArray(a), c);
+   }
+
+
+   /**
+    * Selects the kth minimum distinct value from the list a, as kmin
+    * does for an array. The list a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched
+    * @param k k-selection value
+    * @param c comparator that orders the values, or null
+    * @return kth minimum value in list
+    * @throws IllegalArgumentException as specified by kmin
+    */
+   public static <T> T kmin(List<T> a, int k, Comparator<? super T> c) {
+      return kmin(toArray(a), k, c);
+   }
+
+
+   /**
+    * Selects the kth maximum distinct value from the list a, as kmax
+    * does for an array. The list a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched
+    * @param k k-selection value
+    * @param c comparator that orders the values, or null
+    * @return kth maximum value in list
+    * @throws IllegalArgumentException as specified by kmax
+    */
+   public static <T> T kmax(List<T> a, int k, Comparator<? super T> c) {
+      return kmax(toArray(a), k, c);
+   }
+
+
+   /**
+    * Returns a list of all the values in a in the range [low..high], as
+    * range does for an array. The list a is not changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched through
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @param c comparator that orders the values, or null
+    * @return list of elements that fit in the range
+    * @throws IllegalArgumentException if a is null or empty
+    */
+   public static <T> List<T> range(List<T> a, T low, T high,
+         Comparator<? super T> c) {
+      return Arrays.asList(range(toArray(a), low, high, c));
+   }
+
+
+   /**
+    * Returns the smallest value in a that is greater than or equal to
+    * the given key, as ceiling does for an array. The list a is not
+    * changed by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched through
+    * @param key reference value
+    * @param c comparator that orders the values, or null
+    * @return next greater value in list
+    * @throws IllegalArgumentException as specified by ceiling
+    */
+   public static <T> T ceiling(List<T> a, T key, Comparator<? super T> c) {
+      return ceiling(toArray(a), key, c);
+   }
+
+
+   /**
+    * Returns the largest value in a that is less than or equal to the
+    * given key, as floor does for an array. The list a is not changed
+    * by this method.
+    *
+    * @param <T> type of the values
+    * @param a list to be searched through
+    * @param key reference value
+    * @param c comparator that orders the values, or null
+    * @return next smaller value in list
+    * @throws IllegalArgumentException as specified by floor
+    */
+   public static <T> T floor(List<T> a, T key, Comparator<? super T> c) {
+      return floor(toArray(a), key, c);
+   }
+
+
+   /**
+    * Largest input that is deduplicated by hashing rather than sorting.
+    * Its table has 2^28 slots, so the table length cannot overflow and
+    * never takes more than four times the memory of the input.
+    */
+   static final int MAX_HASHED = 1 << 26;
+
+   /** Number of values summarize reads per block. */
+   private static final int SUMMARY_BLOCK = 2048;
+
+   /** Group size used by the median-of-medians pivot rule. */
+   private static final int GROUP = 5;
+
+
+   /**
+    * Returns the length of the scratch buffer that distinct needs for
+    * an input of n values: a power of two at least twice n, so the
+    * open-addressed table is never more than half full. Inputs of more
+    * than MAX_HASHED values are sorted instead, in a buffer of exactly
+    * n values.
+    *
+    * @param n number of input values
+    * @return scratch buffer length
+    */
+   static int scratchLength(int n) {
+      if (n > MAX_HASHED) {
+         return n;
+      }
+      return Integer.highestOneBit(n) << 2;
+   }
+
+
+   /**
+    * Copies the distinct values of a[from..to) into the front of the
+    * scratch buffer b and returns how many there are. The values are placed in
+    * no particular order. Zero is the empty-slot marker of the table, so
+    * it is tracked separately and appended at the end. Inputs too large
+    * to hash are copied, sorted, and compacted instead.
+    *
+    * @param a values to be deduplicated
+    * @param from first index of the values
+    * @param to index just past the last of the values
+    * @param b scratch buffer of length scratchLength(to - from)
+    * @return number of distinct values now in b[0..count)
+    */
+   static int distinct(int[] a, int from, int to, int[] b) {
+      if (from == to) {
+         return 0;
+      }
+   
+      if (b.length == to - from) {
+         System.arraycopy(a, from, b, 0, b.length);
+         Arrays.sort(b);
+         int count = 1;
+         for (int i = 1; i < b.length; i++) {
+            if (b[i] != b[count - 1]) {
+               b[count++] = b[i];
+            }
+         }
+         return count;
+      }
+   
+      int mask = b.length - 1;
+      int shift = Integer.numberOfLeadingZeros(mask);
+      boolean hasZero = false;
+      for (int j = from; j < to; j++) {
+         int value = a[j];
+         if (value == 0) {
+            hasZero = true;
+            continue;
+         }
+         int i = hash(value) >>> shift;
+         while (b[i] != 0 && b[i] != value) {
+            i = (i + 1) & mask;
+         }
+         b[i] = value;
+      }
+   
+      int count = 0;
+      for (int i = 0; i < b.length; i++) {
+         if (b[i] != 0) {
+            b[count++] = b[i];
+         }
+      }
+      if (hasZero) {
+         b[count++] = 0;
+      }
+      return count;
+   }
+
+
+   /**
+    * Scrambles the bits of value for hashing. The high bits of the
+    * result are the best mixed, so a table of 2^bits slots takes its
+    * slot from the top bits of the hash.
+    *
+    * @param value value to be hashed
+    * @return hash of value
+    */
+   static int hash(int value) {
+      return value * 0x9E3779B9;
+   }
+
+
+   /**
+    * Returns the number of quickselect rounds allowed on n values before
+    * select falls back to median-of-medians pivots.
+    *
+    * @param n number of values to select from
+    * @return round budget for randomized-style pivots
+    */
+   static int selectDepth(int n) {
+      return 2 * (32 - Integer.numberOfLeadingZeros(n));
+   }
+
+
+   /**
+    * Returns the value of rank r (0-based) among the distinct values in
+    * b[lo..hi], rearranging that portion of b. Pivots are chosen by
+    * median of three until depth rounds have been spent, after which the
+    * median-of-medians rule guarantees linear worst-case time.
+    *
+    * @param b values to select from, all distinct
+    * @param lo first index of the portion
+    * @param hi last index of the portion
+    * @param r rank of the value to select, lo <= r <= hi
+    * @param depth remaining median-of-three rounds
+    * @return value of rank r
+    */
+   static int select(int[] b, int lo, int hi, int r, int depth) {
+      while (lo < hi) {
+         int p;
+         if (depth > 0) {
+            p = medianOfThree(b, lo, (lo + hi) >>> 1, hi);
+            depth--;
+         }
+         else {
+            p = medianOfMedians(b, lo, hi);
+         }
+      
+         int m = partition(b, lo, hi, p);
+         if (r == m) {
+            return b[r];
+         }
+         if (r < m) {
+            hi = m - 1;
+         }
+         else {
+            lo = m + 1;
+         }
+      }
+      return b[r];
+   }
+
+
+   /**
+    * Partitions b[lo..hi] around the value at index p and returns the
+    * final index of that value. Values smaller than the pivot end up to
+    * its left, larger values to its right.
+    *
+    * @param b values to partition, all distinct
+    * @param lo first index of the portion
+    * @param hi last index of the portion
+    * @param p index of the pivot
+    * @return final index of the pivot
+    */
+   private static int partition(int[] b, int lo, int hi, int p) {
+      swap(b, p, hi);
+      int pivot = b[hi];
+      int store = lo;
+      for (int i = lo; i < hi; i++) {
+         if (b[i] < pivot) {
+            swap(b, store++, i);
+         }
+      }
+      swap(b, store, hi);
+      return store;
+   }
+
+
+   /**
+    * Returns whichever of the indexes i, j, k holds the median value.
+    */
+   private static int medianOfThree(int[] b, int i, int j, int k) {
+      if (b[i] < b[j]) {
+         return b[j] < b[k] ? j : (b[i] < b[k] ? k : i);
+      }
+      return b[i] < b[k] ? i : (b[j] < b[k] ? k : j);
+   }
+
+
+   /**
+    * Returns the index of a pivot in b[lo..hi] chosen by the
+    * median-of-medians rule. The medians of each group of five are
+    * gathered at the front of the portion and their median is selected
+    * recursively.
+    *
+    * @param b values to choose from, all distinct
+    * @param lo first index of the portion
+    * @param hi last index of the portion
+    * @return index of the chosen pivot
+    */
+   private static int medianOfMedians(int[] b, int lo, int hi) {
+      if (hi - lo < GROUP) {
+         insertionSort(b, lo, hi);
+         return (lo + hi) >>> 1;
+      }
+   
+      int m = lo;
+      for (int i = lo; i <= hi; i += GROUP) {
+         int end = Math.min(i + GROUP - 1, hi);
+         insertionSort(b, i, end);
+         swap(b, m++, (i + end) >>> 1);
+      }
+      int mid = (lo + m - 1) >>> 1;
+      select(b, lo, m - 1, mid, 0);
+      return mid;
+   }
+
+
+   /**
+    * Sorts b[lo..hi] in ascending order.
+    */
+   private static void insertionSort(int[] b, int lo, int hi) {
+      for (int i = lo + 1; i <= hi; i++) {
+         int value = b[i];
+         int j = i - 1;
+         while (j >= lo && b[j] > value) {
+            b[j + 1] = b[j];
+            j--;
+         }
+         b[j + 1] = value;
+      }
+   }
+
+
+   /**
+    * Exchanges b[i] and b[j].
+    */
+   private static void swap(int[] b, int i, int j) {
+      int temp = b[i];
+      b[i] = b[j];
+      b[j] = temp;
+   }
+
+
+   /**
+    * Copies the distinct values of a into the front of the scratch
+    * buffer b and returns how many there are, as the int version does.
+    *
+    * @param a values to be deduplicated
+    * @param b scratch buffer of length scratchLength(a.length)
+    * @return number of distinct values now in b[0..count)
+    */
+   private static int distinct(long[] a, long[] b) {
+      if (b.length == a.length) {
+         System.arraycopy(a, 0, b, 0, a.length);
+         return sortDistinct(b);
+      }
+   
+      int mask = b.length - 1;
+      boolean hasZero = false;
+      for (int j = 0; j < a.length; j++) {
+         hasZero |= insert(b, mask, a[j]);
+      }
+      return compact(b, hasZero);
+   }
+
+
+   /**
+    * Copies the sortable keys of the distinct values of a into the front
+    * of the scratch buffer b and returns how many there are. Values are
+    * distinct when Double.compare says they are not equal.
+    *
+    * @param a values to be deduplicated
+    * @param b scratch buffer of length scratchLength(a.length)
+    * @return number of distinct keys now in b[0..count)
+    */
+   private static int distinct(double[] a, long[] b) {
+      if (b.length == a.length) {
+         for (int j = 0; j < a.length; j++) {
+            b[j] = sortableKey(a[j]);
+         }
+         return sortDistinct(b);
+      }
+   
+      int mask = b.length - 1;
+      boolean hasZero = false;
+      for (int j = 0; j < a.length; j++) {
+         hasZero |= insert(b, mask, sortableKey(a[j]));
+      }
+      return compact(b, hasZero);
+   }
+
+
+   /**
+    * Sorts b and moves its distinct values to the front, returning how
+    * many there are.
+    */
+   private static int sortDistinct(long[] b) {
+      Arrays.sort(b);
+      int count = 1;
+      for (int i = 1; i < b.length; i++) {
+         if (b[i] != b[count - 1]) {
+            b[count++] = b[i];
+         }
+      }
+      return count;
+   }
+
+
+   /**
+    * Adds value to the open-addressed table b, whose empty slots hold
+    * zero. Zero itself is not stored; instead this method returns true
+    * so the caller can remember it was seen.
+    *
+    * @param b table of length mask + 1
+    * @param mask table length minus one
+    * @param value value to be added
+    * @return true if value is zero
+    */
+   private static boolean insert(long[] b, int mask, long value) {
+      if (value == 0) {
+         return true;
+      }
+      long h = value * 0x9E3779B97F4A7C15L;
+      int i = (int) (h >>> 32) & mask;
+      while (b[i] != 0 && b[i] != value) {
+         i = (i + 1) & mask;
+      }
+      b[i] = value;
+      return false;
+   }
+
+
+   /**
+    * Moves the values in the table b to its front, appends zero if it
+    * was seen, and returns how many values there are.
+    */
+   private static int compact(long[] b, boolean hasZero) {
+      int count = 0;
+      for (int i = 0; i < b.length; i++) {
+         if (b[i] != 0) {
+            b[count++] = b[i];
+         }
+      }
+      if (hasZero) {
+         b[count++] = 0;
+      }
+      return count;
+   }
+
+
+   /**
+    * Returns a long whose signed order matches the Double.compare order
+    * of d. Negative doubles have all bits but the sign flipped, which
+    * reverses their order; NaNs all map to one key, above infinity.
+    * Applying fromSortableKey to the result gives back d.
+    */
+   private static long sortableKey(double d) {
+      long bits = Double.doubleToLongBits(d);
+      return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+   }
+
+
+   /**
+    * Returns the double whose sortable key is key.
+    */
+   private static double fromSortableKey(long key) {
+      return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+   }
+
+
+   /**
+    * Sorts b by order and moves its distinct values, those order finds
+    * unequal, to the front, returning how many there are. Sorting is
+    * used because no comparison-based method can count distinct values
+    * in less than n log n time.
+    */
+   private static <T> int distinct(T[] b, Comparator<? super T> order) {
+      Arrays.sort(b, order);
+      int count = 1;
+      for (int i = 1; i < b.length; i++) {
+         if (order.compare(b[i], b[count - 1]) != 0) {
+            b[count++] = b[i];
+         }
+      }
+      return count;
+   }
+
+
+   /**
+    * Returns c, or the natural ordering if c is null.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> Comparator<? super T> orderOf(Comparator<? super T> c) {
+      if (c != null) {
+         return c;
+      }
+      return (Comparator<? super T>) Comparator.naturalOrder();
+   }
+
+
+   /**
+    * Returns the values of the list a in an array, or throws
+    * IllegalArgumentException if a is null.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> T[] toArray(List<T> a) {
+      if (a == null) {
+         throw new IllegalArgumentException();
+      }
+      return (T[]) a.toArray();
+   }
+
+
+   /**
+    * Returns the value of rank r (0-based) among the distinct values in
+    * b[lo..hi], as the int version does.
+    */
+   private static long select(long[] b, int lo, int hi, int r, int depth) {
+      while (lo < hi) {
+         int p;
+         if (depth > 0) {
+            p = medianOfThree(b, lo, (lo + hi) >>> 1, hi);
+            depth--;
+         }
+         else {
+            p = medianOfMedians(b, lo, hi);
+         }
+      
+         int m = partition(b, lo, hi, p);
+         if (r == m) {
+            return b[r];
+         }
+         if (r < m) {
+            hi = m - 1;
+         }
+         else {
+            lo = m + 1;
+         }
+      }
+      return b[r];
+   }
+
+
+   /**
+    * Partitions b[lo..hi] around the value at index p and returns the
+    * final index of that value.
+    */
+   private static int partition(long[] b, int lo, int hi, int p) {
+      swap(b, p, hi);
+      long pivot = b[hi];
+      int store = lo;
+      for (int i = lo; i < hi; i++) {
+         if (b[i] < pivot) {
+            swap(b, store++, i);
+         }
+      }
+      swap(b, store, hi);
+      return store;
+   }
+
+
+   /**
+    * Returns whichever of the indexes i, j, k holds the median value.
+    */
+   private static int medianOfThree(long[] b, int i, int j, int k) {
+      if (b[i] < b[j]) {
+         return b[j] < b[k] ? j : (b[i] < b[k] ? k : i);
+      }
+      return b[i] < b[k] ? i : (b[j] < b[k] ? k : j);
+   }
+
+
+   /**
+    * Returns the index of a pivot in b[lo..hi] chosen by the
+    * median-of-medians rule.
+    */
+   private static int medianOfMedians(long[] b, int lo, int hi) {
+      if (hi - lo < GROUP) {
+         insertionSort(b, lo, hi);
+         return (lo + hi) >>> 1;
+      }
+   
+      int m = lo;
+      for (int i = lo; i <= hi; i += GROUP) {
+         int end = Math.min(i + GROUP - 1, hi);
+         insertionSort(b, i, end);
+         swap(b, m++, (i + end) >>> 1);
+      }
+      int mid = (lo + m - 1) >>> 1;
+      select(b, lo, m - 1, mid, 0);
+      return mid;
+   }
+
+
+   /**
+    * Sorts b[lo..hi] in ascending order.
+    */
+   private static void insertionSort(long[] b, int lo, int hi) {
+      for (int i = lo + 1; i <= hi; i++) {
+         long value = b[i];
+         int j = i - 1;
+         while (j >= lo && b[j] > value) {
+            b[j + 1] = b[j];
+            j--;
+         }
+         b[j + 1] = value;
+      }
+   }
+
+
+   /**
+    * Exchanges b[i] and b[j].
+    */
+   private static void swap(long[] b, int i, int j) {
+      long temp = b[i];
+      b[i] = b[j];
+      b[j] = temp;
+   }
+
 }
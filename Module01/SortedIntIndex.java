@@ -0,0 +1,255 @@
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+* Answers repeated selection queries on one array of ints. The
+* array is sorted once when the index is built, after which floor,
+* ceiling, range, kmin and kmax each take O(log n) time or better.
+* The queries follow the same rules as the matching methods in
+* Selector.
+*/
+public final class SortedIntIndex {
+
+   /** every value from the source array, in ascending order. */
+   private final int[] sorted;
+
+   /** the distinct values from the source array, in ascending order. */
+   private final int[] distinct;
+
+
+   /**
+    * Builds an index over the values in a. This constructor throws
+    * IllegalArgumentException if a is null or has zero length. The
+    * array a is not changed and later changes to a are not seen by
+    * the index.
+    *
+    * @param a array to be indexed
+    * @throws IllegalArgumentException as specified above
+    */
+   public SortedIntIndex(int[] a) {
+
+      if (a == null || a.length == 0) {
+         throw new IllegalArgumentException();
+      }
+
+      sorted = Arrays.copyOf(a, a.length);
+      Arrays.sort(sorted);
+
+      int count = 1;
+      for (int i = 1; i < sorted.length; i++) {
+         if (sorted[i] != sorted[i - 1]) {
+            count++;
+         }
+      }
+
+      distinct = new int[count];
+      distinct[0] = sorted[0];
+      int dIndex = 1;
+      for (int i = 1; i < sorted.length; i++) {
+         if (sorted[i] != sorted[i - 1]) {
+            distinct[dIndex++] = sorted[i];
+         }
+      }
+   }
+
+
+   /**
+    * Returns the number of values in the index, including duplicates.
+    *
+    * @return number of indexed values
+    */
+   public int size() {
+      return sorted.length;
+   }
+
+
+   /**
+    * Returns the number of distinct values in the index.
+    *
+    * @return number of distinct indexed values
+    */
+   public int distinctSize() {
+      return distinct.length;
+   }
+
+
+   /**
+    * Returns the minimum indexed value.
+    *
+    * @return minimum value
+    */
+   public int min() {
+      return distinct[0];
+   }
+
+
+   /**
+    * Returns the maximum indexed value.
+    *
+    * @return maximum value
+    */
+   public int max() {
+      return distinct[distinct.length - 1];
+   }
+
+
+   /**
+    * Returns the kth minimum distinct value. This method throws
+    * IllegalArgumentException if there is no kth minimum value; that
+    * is, if k < 1 or k is larger than the number of distinct values.
+    *
+    * @param k k-selection value
+    * @return kth minimum value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int kmin(int k) {
+      if (k <= 0 || k > distinct.length) {
+         throw new IllegalArgumentException();
+      }
+      return distinct[k - 1];
+   }
+
+
+   /**
+    * Returns the kth maximum distinct value. This method throws
+    * IllegalArgumentException if there is no kth maximum value; that
+    * is, if k < 1 or k is larger than the number of distinct values.
+    *
+    * @param k k-selection value
+    * @return kth maximum value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int kmax(int k) {
+      if (k <= 0 || k > distinct.length) {
+         throw new IllegalArgumentException();
+      }
+      return distinct[distinct.length - k];
+   }
+
+
+   /**
+    * Returns the smallest indexed value that is greater than or equal
+    * to the given key. This method throws an IllegalArgumentException
+    * if there is no qualifying value.
+    *
+    * @param key reference value
+    * @return next greater value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int ceiling(int key) {
+      int i = lowerBound(distinct, key);
+      if (i == distinct.length) {
+         throw new IllegalArgumentException();
+      }
+      return distinct[i];
+   }
+
+
+   /**
+    * Returns the largest indexed value that is less than or equal to
+    * the given key. This method throws an IllegalArgumentException if
+    * there is no qualifying value.
+    *
+    * @param key reference value
+    * @return next smaller value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int floor(int key) {
+      int i = upperBound(distinct, key);
+      if (i == 0) {
+         throw new IllegalArgumentException();
+      }
+      return distinct[i - 1];
+   }
+
+
+   /**
+    * Returns the number of indexed values in the range [low..high],
+    * including duplicate values.
+    *
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return number of values that fit in the range
+    */
+   public int rangeCount(int low, int high) {
+      if (low > high) {
+         return 0;
+      }
+      return upperBound(sorted, high) - lowerBound(sorted, low);
+   }
+
+
+   /**
+    * Returns a read-only view of all the indexed values in the range
+    * [low..high], including duplicate values, in ascending order. The
+    * view shares storage with the index, so no values are copied. If
+    * there are no qualifying values the view has no remaining
+    * elements.
+    *
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return view of the values that fit in the range
+    */
+   public IntBuffer range(int low, int high) {
+      int from = lowerBound(sorted, low);
+      int to = Math.max(from, upperBound(sorted, high));
+      return IntBuffer.wrap(sorted, from, to - from).slice().asReadOnlyBuffer();
+   }
+
+
+   /**
+    * Returns an array containing all the indexed values in the range
+    * [low..high], including duplicate values, in ascending order. This
+    * copies the matching values; range returns them without copying.
+    *
+    * @param low lower bound value of the range
+    * @param high upper bound value of the range
+    * @return array of values that fit in the range
+    */
+   public int[] rangeArray(int low, int high) {
+      int from = lowerBound(sorted, low);
+      int to = Math.max(from, upperBound(sorted, high));
+      return Arrays.copyOfRange(sorted, from, to);
+   }
+
+
+   /**
+    * Returns the index of the first value in b that is greater than or
+    * equal to key, or b.length if there is none.
+    */
+   private static int lowerBound(int[] b, int key) {
+      int lo = 0;
+      int hi = b.length;
+      while (lo < hi) {
+         int mid = (lo + hi) >>> 1;
+         if (b[mid] < key) {
+            lo = mid + 1;
+         }
+         else {
+            hi = mid;
+         }
+      }
+      return lo;
+   }
+
+
+   /**
+    * Returns the index of the first value in b that is greater than
+    * key, or b.length if there is none.
+    */
+   private static int upperBound(int[] b, int key) {
+      int lo = 0;
+      int hi = b.length;
+      while (lo < hi) {
+         int mid = (lo + hi) >>> 1;
+         if (b[mid] <= key) {
+            lo = mid + 1;
+         }
+         else {
+            hi = mid;
+         }
+      }
+      return lo;
+   }
+
+}
@@ -0,0 +1,321 @@
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+* Answers kth minimum or kth maximum queries over a stream of ints
+* that is too large to hold in memory. Values are fed in one at a
+* time, and the selector keeps only the k smallest (or largest)
+* distinct values seen so far, so memory is O(k) no matter how long
+* the stream is. It can be queried at any point. Queries follow the
+* same distinct-value rules as Selector.kmin and Selector.kmax.
+*/
+public final class StreamingSelector implements IntConsumer {
+
+   /**
+    * largest k accepted. The set is kept at most half full in a
+    * power-of-two array, and 2 * MAX_K is the largest such length.
+    */
+   static final int MAX_K = 1 << 29;
+
+   /** number of distinct values kept. */
+   private final int k;
+
+   /** true if the largest values are kept rather than the smallest. */
+   private final boolean largest;
+
+   /**
+    * max-heap of the kept values. When largest is true each value v is
+    * stored as ~v, which reverses the order without overflow, so the
+    * heap always keeps the smallest stored values.
+    */
+   private final int[] heap;
+
+   /** open-addressed set of the stored values; zero marks empty slots. */
+   private final int[] set;
+
+   /** true if the stored value zero is in the set. */
+   private boolean hasZero;
+
+   /** number of values kept. */
+   private int size;
+
+   /** number of values fed in, including duplicates. */
+   private long count;
+
+
+   /**
+    * Creates a selector that keeps k values.
+    */
+   private StreamingSelector(int k, boolean largest) {
+      if (k < 1 || k > MAX_K) {
+         throw new IllegalArgumentException();
+      }
+      this.k = k;
+      this.largest = largest;
+      heap = new int[k];
+      set = new int[setLength(k)];
+   }
+
+   /**
+    * Returns the length of the set for k values: the smallest power of
+    * two that is at least 2 * k, so the set is never more than half full.
+    */
+   static int setLength(int k) {
+      return Integer.highestOneBit(2 * k - 1) << 1;
+   }
+
+
+   /**
+    * Returns a selector that answers kmin queries for every j up to k.
+    * This method throws IllegalArgumentException if k < 1 or k > 2^29.
+    *
+    * @param k largest k-selection value that will be queried
+    * @return selector that keeps the k smallest distinct values
+    * @throws IllegalArgumentException as specified above
+    */
+   public static StreamingSelector smallest(int k) {
+      return new StreamingSelector(k, false);
+   }
+
+
+   /**
+    * Returns a selector that answers kmax queries for every j up to k.
+    * This method throws IllegalArgumentException if k < 1 or k > 2^29.
+    *
+    * @param k largest k-selection value that will be queried
+    * @return selector that keeps the k largest distinct values
+    * @throws IllegalArgumentException as specified above
+    */
+   public static StreamingSelector largest(int k) {
+      return new StreamingSelector(k, true);
+   }
+
+
+   /**
+    * Feeds one value into the selector. This takes O(1) time when the
+    * value is not kept and O(log k) time when it replaces a kept value.
+    *
+    * @param value next value from the stream
+    */
+   @Override
+   public void accept(int value) {
+      count++;
+      int stored = largest ? ~value : value;
+
+      // Once k values are kept, most values are rejected by this one
+      // comparison and never reach the set.
+      if ((size == k && stored >= heap[0]) || contains(stored)) {
+         return;
+      }
+
+      if (size < k) {
+         insert(stored);
+         heap[size] = stored;
+         siftUp(size++);
+      }
+      else {
+         delete(heap[0]);
+         insert(stored);
+         heap[0] = stored;
+         siftDown(0);
+      }
+   }
+
+
+   /**
+    * Feeds every value in a into the selector. This method throws
+    * IllegalArgumentException if a is null.
+    *
+    * @param a values from the stream
+    * @throws IllegalArgumentException as specified above
+    */
+   public void acceptAll(int[] a) {
+      if (a == null) {
+         throw new IllegalArgumentException();
+      }
+      for (int j = 0; j < a.length; j++) {
+         accept(a[j]);
+      }
+   }
+
+
+   /**
+    * Feeds every value in s into the selector, consuming the stream.
+    * This method throws IllegalArgumentException if s is null.
+    *
+    * @param s values from the stream
+    * @throws IllegalArgumentException as specified above
+    */
+   public void acceptAll(IntStream s) {
+      if (s == null) {
+         throw new IllegalArgumentException();
+      }
+      s.sequential().forEach(this);
+   }
+
+
+   /**
+    * Returns the number of values fed in so far, including duplicates.
+    *
+    * @return number of values consumed
+    */
+   public long count() {
+      return count;
+   }
+
+
+   /**
+    * Returns the number of distinct values kept: the number of distinct
+    * values seen so far, or k if that is larger.
+    *
+    * @return number of distinct values kept
+    */
+   public int size() {
+      return size;
+   }
+
+
+   /**
+    * Returns the jth minimum distinct value seen so far by a selector
+    * made by smallest, or the jth maximum distinct value seen so far by
+    * a selector made by largest. When j equals k this takes O(1) time,
+    * otherwise O(k) time. This method throws IllegalArgumentException
+    * if j < 1, j > k, or fewer than j distinct values have been seen.
+    *
+    * @param j k-selection value
+    * @return jth minimum or maximum value seen so far
+    * @throws IllegalArgumentException as specified above
+    */
+   public int select(int j) {
+      if (j <= 0 || j > size) {
+         throw new IllegalArgumentException();
+      }
+
+      int stored;
+      if (j == size) {
+         stored = heap[0];
+      }
+      else {
+         int[] b = new int[size];
+         System.arraycopy(heap, 0, b, 0, size);
+         stored = Selector.select(b, 0, size - 1, j - 1,
+            Selector.selectDepth(size));
+      }
+      return largest ? ~stored : stored;
+   }
+
+
+   /**
+    * Returns true if stored is in the set.
+    */
+   private boolean contains(int stored) {
+      if (stored == 0) {
+         return hasZero;
+      }
+      int mask = set.length - 1;
+      int i = slot(stored, mask);
+      while (set[i] != 0) {
+         if (set[i] == stored) {
+            return true;
+         }
+         i = (i + 1) & mask;
+      }
+      return false;
+   }
+
+
+   /**
+    * Adds stored, which is not already present, to the set.
+    */
+   private void insert(int stored) {
+      if (stored == 0) {
+         hasZero = true;
+         return;
+      }
+      int mask = set.length - 1;
+      int i = slot(stored, mask);
+      while (set[i] != 0) {
+         i = (i + 1) & mask;
+      }
+      set[i] = stored;
+   }
+
+
+   /**
+    * Removes stored, which is present, from the set. Later entries in
+    * the same probe run are shifted back so no tombstones are needed.
+    */
+   private void delete(int stored) {
+      if (stored == 0) {
+         hasZero = false;
+         return;
+      }
+      int mask = set.length - 1;
+      int i = slot(stored, mask);
+      while (set[i] != stored) {
+         i = (i + 1) & mask;
+      }
+
+      int gap = i;
+      int j = (gap + 1) & mask;
+      while (set[j] != 0) {
+         int home = slot(set[j], mask);
+         // Move set[j] into the gap unless its home lies cyclically in
+         // (gap, j], where it can still be found without the move.
+         if (((j - home) & mask) >= ((j - gap) & mask)) {
+            set[gap] = set[j];
+            gap = j;
+         }
+         j = (j + 1) & mask;
+      }
+      set[gap] = 0;
+   }
+
+
+   /**
+    * Returns the home slot of stored in a table of length mask + 1,
+    * taken from the top bits of its hash.
+    */
+   private static int slot(int stored, int mask) {
+      return Selector.hash(stored) >>> Integer.numberOfLeadingZeros(mask);
+   }
+
+
+   /**
+    * Moves heap[i] up until its parent is larger.
+    */
+   private void siftUp(int i) {
+      int value = heap[i];
+      while (i > 0) {
+         int parent = (i - 1) >>> 1;
+         if (heap[parent] >= value) {
+            break;
+         }
+         heap[i] = heap[parent];
+         i = parent;
+      }
+      heap[i] = value;
+   }
+
+
+   /**
+    * Moves heap[i] down until both children are smaller.
+    */
+   private void siftDown(int i) {
+      int value = heap[i];
+      int half = size >>> 1;
+      while (i < half) {
+         int child = 2 * i + 1;
+         if (child + 1 < size && heap[child + 1] > heap[child]) {
+            child++;
+         }
+         if (value >= heap[child]) {
+            break;
+         }
+         heap[i] = heap[child];
+         i = child;
+      }
+      heap[i] = value;
+   }
+
+}
@@ -0,0 +1,125 @@
+/**
+* Holds the result of Selector.summarize: the size, minimum and
+* maximum of an array of ints together with the floor and ceiling of
+* each requested key. Instances are immutable.
+*/
+public final class Summary {
+
+   /** number of values summarized. */
+   private final int count;
+
+   /** minimum and maximum values summarized. */
+   private final int min;
+   private final int max;
+
+   /** keys and, by position, their floors and ceilings. */
+   private final int[] keys;
+   private final int[] floors;
+   private final int[] ceilings;
+
+   /**
+    * Creates a summary. Only Selector builds summaries, and it hands
+    * over arrays that it no longer uses.
+    */
+   Summary(int count, int min, int max, int[] keys, int[] floors,
+         int[] ceilings) {
+      this.count = count;
+      this.min = min;
+      this.max = max;
+      this.keys = keys;
+      this.floors = floors;
+      this.ceilings = ceilings;
+   }
+
+
+   /**
+    * Returns the number of values summarized.
+    *
+    * @return number of values
+    */
+   public int count() {
+      return count;
+   }
+
+
+   /**
+    * Returns the minimum value summarized.
+    *
+    * @return minimum value
+    */
+   public int min() {
+      return min;
+   }
+
+
+   /**
+    * Returns the maximum value summarized.
+    *
+    * @return maximum value
+    */
+   public int max() {
+      return max;
+   }
+
+
+   /**
+    * Returns the number of keys summarized.
+    *
+    * @return number of keys
+    */
+   public int keyCount() {
+      return keys.length;
+   }
+
+
+   /**
+    * Returns the ith key.
+    *
+    * @param i position of the key
+    * @return ith key
+    */
+   public int key(int i) {
+      return keys[i];
+   }
+
+
+   /**
+    * Returns the largest value that is less than or equal to the ith
+    * key. This method throws an IllegalArgumentException if there is no
+    * qualifying value, which is the case exactly when the minimum is
+    * greater than the key. Unlike Selector.floor, which uses
+    * Integer.MIN_VALUE to mean that nothing qualified, this method
+    * returns Integer.MIN_VALUE when that is the floor.
+    *
+    * @param i position of the key
+    * @return next smaller value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int floor(int i) {
+      if (min > keys[i]) {
+         throw new IllegalArgumentException();
+      }
+      return floors[i];
+   }
+
+
+   /**
+    * Returns the smallest value that is greater than or equal to the ith
+    * key. This method throws an IllegalArgumentException if there is no
+    * qualifying value, which is the case exactly when the maximum is less
+    * than the key. Unlike Selector.ceiling, which uses Integer.MAX_VALUE
+    * to mean that nothing qualified, this method returns
+    * Integer.MAX_VALUE when that is the ceiling.
+    *
+    * @param i position of the key
+    * @return next greater value
+    * @throws IllegalArgumentException as specified above
+    */
+   public int ceiling(int i) {
+      if (max < keys[i]) {
+         throw new IllegalArgumentException();
+      }
+      return ceilings[i];
+   }
+
+}
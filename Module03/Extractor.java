@@ -1,11 +1,16 @@
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Scanner;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Extractor.java. Implements feature extraction for collinear points in
@@ -17,28 +22,47 @@ import java.util.TreeSet;
  *
  */
 public class Extractor {
+
+   /** fewest points in a line segment unless a minimum length is given. */
+   private static final int MIN_LENGTH = 4;
+
+   /** anchor chunks created per worker thread by getLinesFastParallel. */
+   private static final int CHUNKS_PER_THREAD = 4;
    
-   /** raw data: all (x,y) points from source data. */
+   /**
+    * raw data: all (x,y) points from source data. This is null until it is
+    * needed if the extractor was built from a PointSet or has had points
+    * added.
+    */
    private Point[] points;
+
+   /** the same points in compact form, built from points when needed. */
+   private PointSet pointSet;
+
+   /**
+    * the distinct points in sorted compact form, built from pointSet the
+    * first time a hashing strategy needs them and kept up to date by add.
+    */
+   private PointSet unique;
    
    /** lines identified from raw data. */
    private SortedSet<Line> lines;
+
+   /** maximal lines kept up to date by add, or null until first needed. */
+   private SortedSet<Line> current;
+
+   /** packed coordinates of every point, built by the first call to add. */
+   private LongIntHashMap present;
+
+   /** spatial index over the points, built when first needed. */
+   private PointIndex index;
   
    /**
     * Builds an extractor based on the points in the file named by filename. 
+    * The file may be a text or binary point file, as read by PointSet.read.
     */
    public Extractor(String filename) throws IOException {
-      Scanner scan = new Scanner(new File(filename));
-      int size = scan.nextInt();
-      points = new Point[size];
-      int x;
-      int y;
-   
-      for (int i = 0; i < size; i++) {
-         x = scan.nextInt();
-         y = scan.nextInt();
-         points[i] = new Point(x, y);
-      }
+      pointSet = PointSet.read(filename);
    }
   
    /**
@@ -49,6 +73,17 @@ public class Extractor {
    public Extractor(Collection<Point> pcoll) {
       points = pcoll.toArray(new Point[]{});
    }
+
+   /**
+    * Builds an extractor based on the points in the PointSet named by pset.
+    * No Point objects are created unless a strategy that needs them, such
+    * as getLinesFast, is run.
+    *
+    * @param pset points to extract lines from; they are copied
+    */
+   public Extractor(PointSet pset) {
+      pointSet = new PointSet(pset);
+   }
   
    /**
     * Returns a sorted set of all line segments of exactly four collinear
@@ -59,6 +94,7 @@ public class Extractor {
     */
    public SortedSet<Line> getLinesBrute() {
       lines = new TreeSet<Line>();
+      ensurePoints();
       
       for (int a = 0; a < points.length; a++) {
          for (int b = a + 1; b < points.length; b++) {
@@ -96,6 +132,7 @@ public class Extractor {
     */
    public SortedSet<Line> getLinesFast() {
       lines = new TreeSet<Line>();
+      ensurePoints();
       Point[] sorted = Arrays.copyOf(points, points.length);
       Line fastLine = new Line();
       boolean canAdd = true;
@@ -120,5 +157,414 @@ public class Extractor {
       
       return lines;
    }
+
+   /**
+    * Returns the same sorted set of line segments as getLinesFast, using
+    * the common fork-join pool.
+    *
+    * @return lines with 4 collinear points using parallel sort-and-scan
+    */
+   public SortedSet<Line> getLinesFastParallel() {
+      return getLinesFastParallel(ForkJoinPool.commonPool());
+   }
+
+   /**
+    * Returns the same sorted set of line segments as getLinesFast, with the
+    * anchor points split into chunks that are scanned in parallel on the
+    * given pool. Each chunk sorts its own copy of the points and collects
+    * its own set of lines, so the workers share nothing until their sets
+    * are merged at the end. If any point appears more than once, the lines
+    * found depend on the order every earlier sort left the points in, so
+    * getLinesFast is run instead. This method throws
+    * IllegalArgumentException if pool is null.
+    *
+    * @param pool pool that runs the chunks
+    * @return lines with 4 collinear points using parallel sort-and-scan
+    * @throws IllegalArgumentException as specified above
+    */
+   public SortedSet<Line> getLinesFastParallel(ForkJoinPool pool) {
+      if (pool == null) {
+         throw new IllegalArgumentException();
+      }
+      ensurePoints();
+      int n = points.length;
+      if (unique().size() != n) {
+         return getLinesFast();
+      }
+      int chunks = Math.max(1, Math.min(n, pool.getParallelism() * CHUNKS_PER_THREAD));
+      ArrayList<SortedSet<Line>> found = new ArrayList<SortedSet<Line>>();
+      for (int c = 0; c < chunks; c++) {
+         found.add(new TreeSet<Line>());
+      }
+   
+      forEachChunk(pool, chunks,
+         c -> {
+            Point[] sorted = Arrays.copyOf(points, n);
+            SortedSet<Line> chunkLines = found.get(c);
+            int to = (int) ((long) n * (c + 1) / chunks);
+            for (int a = (int) ((long) n * c / chunks); a < to; a++) {
+               scanAnchor(points[a], sorted, chunkLines);
+            }
+         });
+   
+      lines = new TreeSet<Line>();
+      for (SortedSet<Line> chunkLines : found) {
+         lines.addAll(chunkLines);
+      }
+      return lines;
+   }
+
+   /**
+    * Sorts the points in sorted by the slope they make with anchor, then
+    * adds to out every group of at least three points with the same slope
+    * as a line segment together with anchor.
+    */
+   private static void scanAnchor(Point anchor, Point[] sorted, SortedSet<Line> out) {
+      Arrays.sort(sorted, anchor.slopeOrder);
+      Line fastLine = new Line();
+   
+      for (int b = 0; b < sorted.length; b++) {
+         fastLine.add(anchor);
+         if (!fastLine.add(sorted[b])) {
+            if (fastLine.length() >= 4) {
+               out.add(fastLine);
+            }
+         
+            fastLine = new Line();
+            fastLine.add(sorted[b]);
+         }
+      }
+      
+      if (fastLine.length() >= 4) {
+         out.add(fastLine);
+      }
+   }
+
+   /**
+    * Returns a sorted set of all line segments of at least four collinear
+    * points, the same maximal line segments that getLinesFast returns.
+    * Rather than sorting by slope around each anchor point, the other
+    * points are grouped by the exact direction they lie in from the anchor,
+    * using a hash map keyed on Point.slopeKey. This takes expected O(n^2)
+    * time overall and never compares floating-point slopes. Each line
+    * segment is built only from its smallest point, so no segment is found
+    * twice. The search runs on the compact PointSet form of the points and
+    * creates Point objects only for the lines it returns. A point that
+    * appears more than once in the data is counted once. Returns an empty
+    * set if there are no qualifying line segments.
+    *
+    * @return lines with 4 or more collinear points using hashing
+    */
+   public SortedSet<Line> getLinesHashed() {
+      return getLinesHashed(MIN_LENGTH);
+   }
+
+   /**
+    * Returns a sorted set of all maximal line segments of at least
+    * minLength collinear points, found as by getLinesHashed. Anchor points
+    * and directions that cannot reach minLength points are skipped early,
+    * so long minimum lengths run faster. This method throws
+    * IllegalArgumentException if minLength < 2.
+    *
+    * @param minLength fewest points a line segment may have
+    * @return lines with minLength or more collinear points using hashing
+    * @throws IllegalArgumentException as specified above
+    */
+   public SortedSet<Line> getLinesHashed(int minLength) {
+      if (minLength < 2) {
+         throw new IllegalArgumentException();
+      }
+      lines = new TreeSet<Line>();
+      forEachLine(minLength, lines::add);
+      return lines;
+   }
+
+   /**
+    * Passes each maximal line segment of at least four collinear points to
+    * action as soon as it is found, using the same search as getLinesHashed
+    * but without collecting the line segments. Each line segment is passed
+    * exactly once, when its smallest point is the anchor, so line segments
+    * arrive in ascending order of their first points. Memory use is O(n)
+    * plus the line segments through a single anchor point, however many
+    * line segments there are in all. This method throws
+    * IllegalArgumentException if action is null.
+    *
+    * @param action receives each line segment
+    * @throws IllegalArgumentException as specified above
+    */
+   public void forEachLine(Consumer<? super Line> action) {
+      forEachLine(MIN_LENGTH, action);
+   }
+
+   /**
+    * Passes each maximal line segment of at least minLength collinear
+    * points to action as soon as it is found, as forEachLine does for four
+    * points. An anchor point with fewer than minLength - 1 points above it
+    * is skipped, and so is a direction, or a whole anchor point, from
+    * which minLength - 1 steps would leave the bounding box of the points.
+    * Counting stops once no direction can reach minLength - 1 points, and
+    * no further work is done for an anchor unless some direction does.
+    * Long minimum lengths prune most directions before they are hashed.
+    * This method throws IllegalArgumentException if minLength < 2 or
+    * action is null.
+    *
+    * @param minLength fewest points a line segment may have
+    * @param action receives each line segment
+    * @throws IllegalArgumentException as specified above
+    */
+   public void forEachLine(int minLength, Consumer<? super Line> action) {
+      if (minLength < 2 || action == null) {
+         throw new IllegalArgumentException();
+      }
+      PointSet sorted = unique().sorted();
+      int n = sorted.size();
+      int need = minLength - 1;
+      long[] keys = new long[n];
+      LongIntHashMap groups = new LongIntHashMap(n);
+      ArrayList<Line> found = new ArrayList<Line>();
+      int minX = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE;
+      for (int i = 0; i < n; i++) {
+         minX = Math.min(minX, sorted.x(i));
+         maxX = Math.max(maxX, sorted.x(i));
+      }
+      int maxY = n == 0 ? 0 : sorted.y(n - 1);
+   
+      for (int a = 0; a + need < n; a++) {
+         // Every point of a group lies a whole number of steps of its
+         // reduced direction from the anchor, so a group can only reach
+         // need points if need steps stay inside the bounding box.
+         long left = sorted.x(a) - minX;
+         long right = maxX - sorted.x(a);
+         long up = maxY - sorted.y(a);
+         if (need > up && need > right) {
+            continue;
+         }
+         groups.clear();
+      
+         // Count the points above the anchor in each direction that has
+         // room, giving up once even the largest group could not reach
+         // need points.
+         int most = 0;
+         for (int b = a + 1; b < n && most + n - b >= need; b++) {
+            long key = sorted.slopeKey(a, b);
+            int dx = (int) (key >> 32);
+            int dy = (int) key;
+            if ((long) need * dy > up || (long) need * dx > right || (long) need * -dx > left) {
+               key = 0;
+            }
+            keys[b] = key;
+            if (key != 0) {
+               most = Math.max(most, groups.add(key, 1));
+            }
+         }
+         if (most < need) {
+            continue;
+         }
+      
+         // A line segment with a point below the anchor is built from that
+         // point instead.
+         for (int b = 0; b < a; b++) {
+            long key = sorted.slopeKey(a, b);
+            if (groups.get(key) >= need) {
+               groups.put(key, 0);
+            }
+         }
+      
+         // Build the remaining groups, remembering each one's line as a
+         // negative index in place of its count.
+         found.clear();
+         Point anchor = sorted.get(a);
+         for (int b = a + 1; b < n; b++) {
+            int count = keys[b] == 0 ? 0 : groups.get(keys[b]);
+            if (count >= need) {
+               Line line = new Line();
+               line.add(anchor);
+               line.add(sorted.get(b));
+               found.add(line);
+               groups.put(keys[b], -found.size());
+            }
+            else if (count < 0) {
+               found.get(-count - 1).add(sorted.get(b));
+            }
+         }
+         for (Line line : found) {
+            action.accept(line);
+         }
+      }
+   }
+
+   /**
+    * Returns the maximal line segments of at least four collinear points
+    * among all the points added so far, the same line segments that
+    * getLinesHashed would return. The set is a read-only view that add
+    * keeps up to date, so it never needs to be recomputed.
+    *
+    * @return lines with 4 or more collinear points, kept up to date
+    */
+   public SortedSet<Line> getLines() {
+      if (current == null) {
+         current = getLinesHashed();
+      }
+      return Collections.unmodifiableSortedSet(current);
+   }
+
+   /**
+    * Adds the point p to this extractor and updates the lines returned by
+    * getLines. Only the slopes from p to the existing points are examined:
+    * they are grouped by Point.slopeKey, and each group of three or more
+    * points becomes a line through p, replacing the shorter line it
+    * extends if there was one. This takes expected O(n) time plus the time
+    * to build the changed lines. Returns true if p was added, or false if
+    * it was already present.
+    *
+    * @param p point to be added
+    * @return true if this extractor is changed as a result
+    */
+   public boolean add(Point p) {
+      if (current == null) {
+         current = getLinesHashed();
+      }
+      PointSet set = unique();
+      int n = set.size();
+      if (present == null) {
+         present = new LongIntHashMap(n);
+         for (int i = 0; i < n; i++) {
+            present.put(pack(set.x(i), set.y(i)), 1);
+         }
+      }
+      long packed = pack(p.x(), p.y());
+      if (present.get(packed) != 0) {
+         return false;
+      }
    
+      long[] keys = new long[n];
+      LongIntHashMap groups = new LongIntHashMap(n);
+      int most = 0;
+      for (int i = 0; i < n; i++) {
+         keys[i] = Point.slopeKey(set.x(i) - p.x(), set.y(i) - p.y());
+         most = Math.max(most, groups.add(keys[i], 1));
+      }
+   
+      if (most >= 3) {
+         // Build each new line, remembering its index as a negative count
+         // and the end points of the line it extends.
+         ArrayList<Line> grown = new ArrayList<Line>();
+         ArrayList<Point> firsts = new ArrayList<Point>();
+         ArrayList<Point> lasts = new ArrayList<Point>();
+         for (int i = 0; i < n; i++) {
+            int count = groups.get(keys[i]);
+            if (count >= 3) {
+               Point q = set.get(i);
+               Line line = new Line();
+               line.add(p);
+               line.add(q);
+               grown.add(line);
+               firsts.add(q);
+               lasts.add(q);
+               groups.put(keys[i], -grown.size());
+            }
+            else if (count < 0) {
+               int g = -count - 1;
+               Point q = set.get(i);
+               grown.get(g).add(q);
+               if (q.compareTo(firsts.get(g)) < 0) {
+                  firsts.set(g, q);
+               }
+               if (q.compareTo(lasts.get(g)) > 0) {
+                  lasts.set(g, q);
+               }
+            }
+         }
+      
+         for (int g = 0; g < grown.size(); g++) {
+            if (grown.get(g).length() > 4) {
+               // Lines are equal when their end points are, so the line
+               // being extended can be removed by its end points alone.
+               Line extended = new Line();
+               extended.add(firsts.get(g));
+               extended.add(lasts.get(g));
+               current.remove(extended);
+            }
+            current.add(grown.get(g));
+         }
+      }
+   
+      set.add(p);
+      pointSet.add(p);
+      present.put(packed, 1);
+      points = null;
+      index = null;
+      return true;
+   }
+
+   /**
+    * Returns a spatial index over the points in this extractor, for range,
+    * radius and nearest-neighbour queries. The index is built the first
+    * time it is asked for, in O(n log n) time, and rebuilt on the next call
+    * after a point is added.
+    *
+    * @return index over the points
+    */
+   public PointIndex getIndex() {
+      if (index == null) {
+         index = new PointIndex(pointSet());
+      }
+      return index;
+   }
+
+   /**
+    * Packs the coordinates (x, y) into one long, ordered as Points are.
+    */
+   private static long pack(int x, int y) {
+      return ((long) y << 32) | x;
+   }
+
+   /**
+    * Creates the Point objects for an extractor built from a PointSet, the
+    * first time a strategy that needs them is run.
+    */
+   private void ensurePoints() {
+      if (points == null) {
+         points = pointSet.toArray();
+      }
+   }
+
+   /**
+    * Returns the points in compact form, building them from the Point
+    * objects the first time they are needed.
+    */
+   private PointSet pointSet() {
+      if (pointSet == null) {
+         pointSet = new PointSet(Arrays.asList(points));
+      }
+      return pointSet;
+   }
+
+   /**
+    * Returns the distinct points in compact form, building them from
+    * pointSet the first time they are needed.
+    */
+   private PointSet unique() {
+      if (unique == null) {
+         unique = pointSet().distinct();
+      }
+      return unique;
+   }
+
+   /**
+    * Runs body once for each chunk index in [0..chunks) on pool and waits
+    * for all of them to finish.
+    */
+   private static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+      List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(chunks);
+      for (int c = 0; c < chunks; c++) {
+         int chunk = c;
+         tasks.add(ForkJoinTask.adapt(() -> body.accept(chunk)));
+      }
+      pool.invoke(ForkJoinTask.adapt(() -> {
+         ForkJoinTask.invokeAll(tasks);
+      }));
+   }
+
 }
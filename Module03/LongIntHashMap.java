@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap.java. A map from long keys to int values that keeps
+ * both in flat arrays, so lookups and updates never box or allocate.
+ * Keys that have not been stored map to zero. Collisions are resolved
+ * by linear probing, and the table doubles whenever it becomes half
+ * full. Long.MIN_VALUE marks empty slots and cannot be used as a key.
+ * The slots in use are listed as they are filled, so clear takes time
+ * in proportion to the number of keys rather than the size of the table,
+ * and a map can be reused cheaply for many small batches of keys.
+ */
+final class LongIntHashMap {
+
+   /** key stored in empty slots. */
+   private static final long EMPTY = Long.MIN_VALUE;
+
+   /** keys, with EMPTY in unused slots; the length is a power of two. */
+   private long[] keys;
+
+   /** value of the key in the same slot. */
+   private int[] values;
+
+   /** slots holding keys, in the order they were filled. */
+   private int[] filled;
+
+   /** number of keys stored. */
+   private int size;
+
+   /**
+    * Creates an empty map that can hold expected keys without growing.
+    *
+    * @param expected number of keys the map is sized for
+    */
+   LongIntHashMap(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(4, expected)) << 2;
+      keys = new long[capacity];
+      values = new int[capacity];
+      filled = new int[(capacity >>> 1) + 1];
+      Arrays.fill(keys, EMPTY);
+   }
+
+   /**
+    * Returns the number of keys stored.
+    *
+    * @return number of keys
+    */
+   int size() {
+      return size;
+   }
+
+   /**
+    * Returns the value of key, or zero if key has not been stored.
+    *
+    * @param key key to look up
+    * @return value of key
+    */
+   int get(long key) {
+      int i = find(key);
+      return keys[i] == EMPTY ? 0 : values[i];
+   }
+
+   /**
+    * Sets the value of key.
+    *
+    * @param key key to store
+    * @param value new value of key
+    */
+   void put(long key, int value) {
+      int i = find(key);
+      if (keys[i] == EMPTY) {
+         i = insert(i, key);
+      }
+      values[i] = value;
+   }
+
+   /**
+    * Adds delta to the value of key and returns the result.
+    *
+    * @param key key to update
+    * @param delta amount to add
+    * @return new value of key
+    */
+   int add(long key, int delta) {
+      int i = find(key);
+      if (keys[i] == EMPTY) {
+         i = insert(i, key);
+      }
+      return values[i] += delta;
+   }
+
+   /**
+    * Removes every key, keeping the table at its current size. Only the
+    * slots in use are emptied.
+    */
+   void clear() {
+      for (int j = 0; j < size; j++) {
+         keys[filled[j]] = EMPTY;
+         values[filled[j]] = 0;
+      }
+      size = 0;
+   }
+
+   /**
+    * Returns the slot holding key, or the empty slot where it belongs.
+    */
+   private int find(long key) {
+      int mask = keys.length - 1;
+      int i = slot(key, mask);
+      while (keys[i] != EMPTY && keys[i] != key) {
+         i = (i + 1) & mask;
+      }
+      return i;
+   }
+
+   /**
+    * Stores key in empty slot i, growing the table if it is now half
+    * full, and returns the slot that key ends up in.
+    */
+   private int insert(int i, long key) {
+      keys[i] = key;
+      filled[size] = i;
+      if (++size <= keys.length >>> 1) {
+         return i;
+      }
+
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      int[] oldFilled = filled;
+      keys = new long[oldKeys.length << 1];
+      values = new int[oldKeys.length << 1];
+      filled = new int[oldKeys.length + 1];
+      Arrays.fill(keys, EMPTY);
+      for (int j = 0; j < size; j++) {
+         long moved = oldKeys[oldFilled[j]];
+         int k = find(moved);
+         keys[k] = moved;
+         values[k] = oldValues[oldFilled[j]];
+         filled[j] = k;
+      }
+      return find(key);
+   }
+
+   /**
+    * Returns the home slot of key in a table of length mask + 1.
+    */
+   private static int slot(long key, int mask) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & mask;
+   }
+
+}
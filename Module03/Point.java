@@ -38,6 +38,20 @@ public final class Point implements Comparable<Point> {
       this.y = y;
    }
 
+   /**
+    * Returns the x coordinate of this point.
+    */
+   int x() {
+      return x;
+   }
+
+   /**
+    * Returns the y coordinate of this point.
+    */
+   int y() {
+      return y;
+   }
+
    /** 
     * Return a string representation of this point.
     * 
@@ -127,6 +141,116 @@ public final class Point implements Comparable<Point> {
       
       return ((double) top) / ((double) bottom);
    }
+
+   /**
+    * Returns an exact key for the direction of the line segment between
+    * this point and the specified point. The difference (dx, dy) between
+    * the points is divided by its greatest common divisor and negated if
+    * need be so that it runs from the smaller point to the larger, then
+    * packed into a long with dx in the high half and dy in the low half.
+    * Two points p and q that are both different from this point have the
+    * same key if and only if p, q and this point are collinear, so keys
+    * can be hashed and compared for equality without any floating-point
+    * error. The key of a degenerate line segment is zero.
+    *
+    * @param that other end of the line segment
+    * @return reduced direction of the line segment
+    */
+   public long slopeKey(Point that) {
+      return slopeKey(that.x - this.x, that.y - this.y);
+   }
+
+   /**
+    * Returns the slope key of the difference (dx, dy) between two points,
+    * as described for slopeKey(Point).
+    */
+   static long slopeKey(int dx, int dy) {
+      if (dx == 0 && dy == 0) {
+         return 0;
+      }
+      int g = gcd(Math.abs(dx), Math.abs(dy));
+      dx /= g;
+      dy /= g;
+      if (dy < 0 || (dy == 0 && dx < 0)) {
+         dx = -dx;
+         dy = -dy;
+      }
+      return ((long) dx << 32) | (dy & 0xFFFFFFFFL);
+   }
+
+   /**
+    * Compares the slopes of two line segments given by their slope keys,
+    * as returned by slopeKey. Returns a negative integer, zero, or a
+    * positive integer if the first slope is less than, equal to, or greater
+    * than the second, in the same order as slopeTo: degenerate, then
+    * ascending finite slopes, then vertical. The comparison is exact; it
+    * cross-multiplies the reduced differences rather than dividing them.
+    *
+    * @param key1 slope key of the first line segment
+    * @param key2 slope key of the second line segment
+    * @return order of the two slopes
+    */
+   public static int compareSlopeKeys(long key1, long key2) {
+      return compareSlopes((int) (key1 >> 32), (int) key1,
+         (int) (key2 >> 32), (int) key2);
+   }
+
+   /**
+    * Compares the slopes of the differences (dx1, dy1) and (dx2, dy2), in
+    * the order of compareSlopeKeys. Each difference may point either way
+    * along its line segment. The products are taken in long arithmetic,
+    * where they cannot overflow.
+    */
+   private static int compareSlopes(int dx1, int dy1, int dx2, int dy2) {
+      int rank1 = slopeRank(dx1, dy1);
+      int rank2 = slopeRank(dx2, dy2);
+      if (rank1 != 1 || rank2 != 1) {
+         return Integer.compare(rank1, rank2);
+      }
+      // Both slopes are finite; point both differences to the right so
+      // that dy1 / dx1 < dy2 / dx2 exactly when dy1 * dx2 < dy2 * dx1.
+      if (dx1 < 0) {
+         dx1 = -dx1;
+         dy1 = -dy1;
+      }
+      if (dx2 < 0) {
+         dx2 = -dx2;
+         dy2 = -dy2;
+      }
+      return Long.compare((long) dy1 * dx2, (long) dy2 * dx1);
+   }
+
+   /**
+    * Returns 0 for a degenerate difference, 2 for a vertical one, and 1
+    * for any other.
+    */
+   private static int slopeRank(int dx, int dy) {
+      if (dx != 0) {
+         return 1;
+      }
+      return dy == 0 ? 0 : 2;
+   }
+
+   /**
+    * Returns the greatest common divisor of a and b, which are not
+    * negative and not both zero.
+    */
+   private static int gcd(int a, int b) {
+      // Binary gcd: shifts and subtractions are far cheaper than the
+      // divisions Euclid's algorithm needs.
+      if (a == 0 || b == 0) {
+         return a | b;
+      }
+      int shift = Integer.numberOfTrailingZeros(a | b);
+      a >>>= Integer.numberOfTrailingZeros(a);
+      while (b != 0) {
+         b >>>= Integer.numberOfTrailingZeros(b);
+         int d = b - a;
+         a = Math.min(a, b);
+         b = Math.abs(d);
+      }
+      return a << shift;
+   }
       
    /**
     * Defines a total order for Points based on the slope that two specified
@@ -138,24 +262,16 @@ public final class Point implements Comparable<Point> {
        * Compares two specified points p1 and p2 for order. Returns a negative
        * integer, zero, or a positive integer if p1 is less than, equal to, or
        * greater than p2. All three properties of the compare method as
-       * specified in the Comparator interface are met. 
+       * specified in the Comparator interface are met. Slopes are compared
+       * exactly by cross-multiplication, in the order given by slopeTo,
+       * without any division.
        *
        * @param p1 first point to determine order
        * @param p2 second point to determine order
        */
       @Override   
       public int compare(Point p1, Point p2) {
-         double slope1 = slopeTo(p1);
-         double slope2 = slopeTo(p2);
-      
-         if (slope1 < slope2) {
-            return -1;
-         }
-         else if (slope1 > slope2) {
-            return 1;
-         }
-         return 0;
-      
+         return compareSlopes(p1.x - x, p1.y - y, p2.x - x, p2.y - y);
       }
    
    }
@@ -0,0 +1,379 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PointIndex.java. A two dimensional k-d tree over a fixed set of points,
+ * answering rectangle range, radius and k-nearest-neighbour queries
+ * without scanning every point. The tree is implicit: the points are
+ * reordered in two int arrays so that the middle point of every range
+ * splits the rest of that range, by x at even depths and by y at odd
+ * depths. Building the tree takes O(n log n) expected time, and no
+ * objects are created for the points until a query returns them.
+ */
+public final class PointIndex {
+
+   /** x coordinates of the points, in tree order. */
+   private final int[] xs;
+
+   /** y coordinates of the points, in tree order. */
+   private final int[] ys;
+
+   /**
+    * Builds an index over the points in set. Later changes to set are not
+    * seen by the index.
+    *
+    * @param set points to be indexed
+    */
+   public PointIndex(PointSet set) {
+      int n = set.size();
+      xs = new int[n];
+      ys = new int[n];
+      for (int i = 0; i < n; i++) {
+         xs[i] = set.x(i);
+         ys[i] = set.y(i);
+      }
+      build(0, n, 0);
+   }
+
+   /**
+    * Builds an index over the points in c.
+    *
+    * @param c points to be indexed
+    */
+   public PointIndex(Collection<Point> c) {
+      this(new PointSet(c));
+   }
+
+   /**
+    * Returns the number of indexed points.
+    *
+    * @return number of points
+    */
+   public int size() {
+      return xs.length;
+   }
+
+   /**
+    * Returns every indexed point (x, y) with xmin <= x <= xmax and
+    * ymin <= y <= ymax, in no particular order. Returns an empty list if
+    * there are none.
+    *
+    * @param xmin smallest x coordinate in the rectangle
+    * @param ymin smallest y coordinate in the rectangle
+    * @param xmax largest x coordinate in the rectangle
+    * @param ymax largest y coordinate in the rectangle
+    * @return points in the rectangle
+    */
+   public List<Point> range(int xmin, int ymin, int xmax, int ymax) {
+      List<Point> found = new ArrayList<Point>();
+      if (xmin <= xmax && ymin <= ymax) {
+         range(0, xs.length, 0, xmin, ymin, xmax, ymax, found);
+      }
+      return found;
+   }
+
+   /**
+    * Returns every indexed point within distance radius of p, including
+    * points exactly radius away, in no particular order. This method
+    * throws IllegalArgumentException if radius < 0.
+    *
+    * @param p center of the circle
+    * @param radius radius of the circle
+    * @return points in the circle
+    * @throws IllegalArgumentException as specified above
+    */
+   public List<Point> withinRadius(Point p, int radius) {
+      if (radius < 0) {
+         throw new IllegalArgumentException();
+      }
+      List<Point> found = new ArrayList<Point>();
+      withinRadius(0, xs.length, 0, p.x(), p.y(), radius, (long) radius * radius, found);
+      return found;
+   }
+
+   /**
+    * Returns the k indexed points nearest to p, nearest first. Points at
+    * equal distances are returned in no particular order, and if fewer
+    * than k points are indexed, all of them are returned. This method
+    * throws IllegalArgumentException if k < 1.
+    *
+    * @param p point to measure from
+    * @param k number of points wanted
+    * @return the nearest points
+    * @throws IllegalArgumentException as specified above
+    */
+   public List<Point> nearest(Point p, int k) {
+      if (k < 1) {
+         throw new IllegalArgumentException();
+      }
+      Neighbours best = new Neighbours(Math.min(k, xs.length));
+      nearest(0, xs.length, 0, p.x(), p.y(), best);
+
+      List<Point> found = new ArrayList<Point>();
+      for (int i : best.sorted()) {
+         found.add(new Point(xs[i], ys[i]));
+      }
+      return found;
+   }
+
+   /**
+    * Returns the coordinate of point i that splits at the given depth.
+    */
+   private int key(int i, int depth) {
+      return (depth & 1) == 0 ? xs[i] : ys[i];
+   }
+
+   /**
+    * Arranges the points in [lo..hi) as a subtree at the given depth.
+    */
+   private void build(int lo, int hi, int depth) {
+      while (hi - lo > 1) {
+         int mid = (lo + hi) >>> 1;
+         select(lo, hi - 1, mid, depth);
+         build(lo, mid, depth + 1);
+         lo = mid + 1;
+         depth++;
+      }
+   }
+
+   /**
+    * Reorders the points in [lo..hi] so that point k has the keys at the
+    * given depth that are no larger than it before it and no smaller than
+    * it after it.
+    */
+   private void select(int lo, int hi, int k, int depth) {
+      while (lo < hi) {
+         int pivot = medianOfThree(key(lo, depth), key((lo + hi) >>> 1, depth),
+            key(hi, depth));
+         int i = lo;
+         int j = hi;
+         while (i <= j) {
+            while (key(i, depth) < pivot) {
+               i++;
+            }
+            while (key(j, depth) > pivot) {
+               j--;
+            }
+            if (i <= j) {
+               swap(i++, j--);
+            }
+         }
+         if (k <= j) {
+            hi = j;
+         }
+         else if (k >= i) {
+            lo = i;
+         }
+         else {
+            return;
+         }
+      }
+   }
+
+   /**
+    * Returns the median of a, b and c.
+    */
+   private static int medianOfThree(int a, int b, int c) {
+      return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+   }
+
+   /**
+    * Swaps points i and j.
+    */
+   private void swap(int i, int j) {
+      int t = xs[i];
+      xs[i] = xs[j];
+      xs[j] = t;
+      t = ys[i];
+      ys[i] = ys[j];
+      ys[j] = t;
+   }
+
+   /**
+    * Adds the points of the subtree [lo..hi) that are in the rectangle to
+    * found.
+    */
+   private void range(int lo, int hi, int depth, int xmin, int ymin, int xmax, int ymax,
+         List<Point> found) {
+      while (lo < hi) {
+         int mid = (lo + hi) >>> 1;
+         int x = xs[mid];
+         int y = ys[mid];
+         if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+            found.add(new Point(x, y));
+         }
+
+         int key = (depth & 1) == 0 ? x : y;
+         boolean left = key >= ((depth & 1) == 0 ? xmin : ymin);
+         boolean right = key <= ((depth & 1) == 0 ? xmax : ymax);
+         if (left && right) {
+            range(lo, mid, depth + 1, xmin, ymin, xmax, ymax, found);
+         }
+         if (right) {
+            lo = mid + 1;
+         }
+         else {
+            hi = mid;
+         }
+         depth++;
+      }
+   }
+
+   /**
+    * Adds the points of the subtree [lo..hi) that are within radius of
+    * (px, py) to found.
+    */
+   private void withinRadius(int lo, int hi, int depth, int px, int py, int radius,
+         long radius2, List<Point> found) {
+      while (lo < hi) {
+         int mid = (lo + hi) >>> 1;
+         int x = xs[mid];
+         int y = ys[mid];
+         if (distance2(x, y, px, py) <= radius2) {
+            found.add(new Point(x, y));
+         }
+
+         long diff = (long) key(mid, depth) - ((depth & 1) == 0 ? px : py);
+         boolean left = diff >= -radius;
+         boolean right = diff <= radius;
+         if (left && right) {
+            withinRadius(lo, mid, depth + 1, px, py, radius, radius2, found);
+         }
+         if (right) {
+            lo = mid + 1;
+         }
+         else {
+            hi = mid;
+         }
+         depth++;
+      }
+   }
+
+   /**
+    * Offers the points of the subtree [lo..hi) to best, visiting the side
+    * of each split that holds (px, py) first so that the other side can
+    * usually be skipped.
+    */
+   private void nearest(int lo, int hi, int depth, int px, int py, Neighbours best) {
+      if (lo >= hi) {
+         return;
+      }
+      int mid = (lo + hi) >>> 1;
+      best.offer(mid, distance2(xs[mid], ys[mid], px, py));
+
+      long diff = (long) ((depth & 1) == 0 ? px : py) - key(mid, depth);
+      if (diff < 0) {
+         nearest(lo, mid, depth + 1, px, py, best);
+         if (diff * diff <= best.worst()) {
+            nearest(mid + 1, hi, depth + 1, px, py, best);
+         }
+      }
+      else {
+         nearest(mid + 1, hi, depth + 1, px, py, best);
+         if (diff * diff <= best.worst()) {
+            nearest(lo, mid, depth + 1, px, py, best);
+         }
+      }
+   }
+
+   /**
+    * Returns the squared distance between (x1, y1) and (x2, y2), which
+    * have non-negative coordinates, so the result cannot overflow.
+    */
+   private static long distance2(int x1, int y1, int x2, int y2) {
+      long dx = x1 - x2;
+      long dy = y1 - y2;
+      return dx * dx + dy * dy;
+   }
+
+   /**
+    * The k nearest points found so far, as a max-heap on squared distance.
+    */
+   private static final class Neighbours {
+
+      /** squared distance of each kept point. */
+      private final long[] distances;
+
+      /** index of each kept point. */
+      private final int[] points;
+
+      /** number of points kept. */
+      private int size;
+
+      /**
+       * Creates an empty set that keeps up to k points.
+       */
+      Neighbours(int k) {
+         distances = new long[k];
+         points = new int[k];
+      }
+
+      /**
+       * Returns the largest squared distance a point may have and still
+       * be kept.
+       */
+      long worst() {
+         return size < points.length ? Long.MAX_VALUE : distances[0];
+      }
+
+      /**
+       * Keeps point i, at squared distance d, if it is among the nearest.
+       */
+      void offer(int i, long d) {
+         if (size < points.length) {
+            int j = size++;
+            while (j > 0 && distances[(j - 1) >>> 1] < d) {
+               distances[j] = distances[(j - 1) >>> 1];
+               points[j] = points[(j - 1) >>> 1];
+               j = (j - 1) >>> 1;
+            }
+            distances[j] = d;
+            points[j] = i;
+         }
+         else if (size > 0 && d < distances[0]) {
+            siftDown(i, d);
+         }
+      }
+
+      /**
+       * Returns the indexes of the kept points, nearest first, emptying
+       * the heap.
+       */
+      int[] sorted() {
+         int[] result = new int[size];
+         while (size > 0) {
+            result[size - 1] = points[0];
+            size--;
+            if (size > 0) {
+               siftDown(points[size], distances[size]);
+            }
+         }
+         return result;
+      }
+
+      /**
+       * Replaces the root with point i at squared distance d and moves it
+       * down until both children are nearer.
+       */
+      private void siftDown(int i, long d) {
+         int j = 0;
+         int half = size >>> 1;
+         while (j < half) {
+            int child = 2 * j + 1;
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+               child++;
+            }
+            if (d >= distances[child]) {
+               break;
+            }
+            distances[j] = distances[child];
+            points[j] = points[child];
+            j = child;
+         }
+         distances[j] = d;
+         points[j] = i;
+      }
+   }
+
+}
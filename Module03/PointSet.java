@@ -0,0 +1,511 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * PointSet.java. A compact, growable collection of points in Quadrant I.
+ * The coordinates are kept in two parallel int arrays rather than as
+ * Point objects, so each point costs eight bytes and the points can be
+ * scanned by index without chasing references. Point objects are only
+ * created when one is asked for. Like a list, a point set keeps its
+ * points in the order they were added and may contain duplicates.
+ *
+ * Point sets can be read from two kinds of file. A text point file holds
+ * the number of points followed by the x and y coordinates of each, all
+ * as decimal integers separated by whitespace. A binary point file, as
+ * written by write, holds the ints 0x50545331 ("PTS1") and the number of
+ * points, then every x coordinate, then every y coordinate, all as
+ * big-endian ints. Binary files load with a bulk copy and no parsing.
+ */
+public final class PointSet implements Iterable<Point> {
+
+   /** capacity of a point set created without one. */
+   private static final int DEFAULT_CAPACITY = 16;
+
+   /** first int of a binary point file: "PTS1" in ASCII. */
+   private static final int MAGIC = 0x50545331;
+
+   /** bytes in the header of a binary point file. */
+   private static final int HEADER = 8;
+
+   /** largest part of a file that is mapped into memory at one time. */
+   private static final long WINDOW = 1 << 30;
+
+   /** bytes written to a binary point file at a time. */
+   private static final int BLOCK = 1 << 16;
+
+   /** x coordinates of the points. */
+   private int[] xs;
+
+   /** y coordinates of the points. */
+   private int[] ys;
+
+   /** number of points. */
+   private int size;
+
+   /**
+    * Creates an empty point set.
+    */
+   public PointSet() {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Creates an empty point set with room for capacity points. This
+    * constructor throws IllegalArgumentException if capacity < 0.
+    *
+    * @param capacity number of points the set can hold without growing
+    * @throws IllegalArgumentException as specified above
+    */
+   public PointSet(int capacity) {
+      if (capacity < 0) {
+         throw new IllegalArgumentException();
+      }
+      xs = new int[capacity];
+      ys = new int[capacity];
+   }
+
+   /**
+    * Creates a point set holding the points in c, in iteration order.
+    *
+    * @param c points to be copied
+    */
+   public PointSet(Collection<Point> c) {
+      this(c.size());
+      for (Point p : c) {
+         add(p);
+      }
+   }
+
+   /**
+    * Creates a point set holding the same points as that.
+    *
+    * @param that point set to be copied
+    */
+   public PointSet(PointSet that) {
+      xs = Arrays.copyOf(that.xs, that.size);
+      ys = Arrays.copyOf(that.ys, that.size);
+      size = that.size;
+   }
+
+   /**
+    * Reads a point set from the text or binary point file named by
+    * filename. The format is told apart by the first four bytes. The file
+    * is memory-mapped, and text is parsed straight from the mapped bytes
+    * without creating a String per number. Anything after the last point
+    * of a text file is ignored. This method throws IOException if the file
+    * cannot be read or is not a well-formed point file, and
+    * IllegalArgumentException if a text file holds a negative coordinate.
+    *
+    * @param filename name of the point file
+    * @return the points in the file, in order
+    * @throws IOException as specified above
+    * @throws IllegalArgumentException as specified above
+    */
+   public static PointSet read(String filename) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(filename),
+            StandardOpenOption.READ)) {
+         long length = channel.size();
+         if (length >= HEADER
+               && channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt() == MAGIC) {
+            return readBinary(channel, length);
+         }
+      
+         TextReader reader = new TextReader();
+         for (long position = 0; position < length && !reader.done(); position += WINDOW) {
+            reader.parse(channel.map(FileChannel.MapMode.READ_ONLY, position,
+               Math.min(WINDOW, length - position)));
+         }
+         return reader.finish();
+      }
+   }
+
+   /**
+    * Writes this point set to the file named by filename as a binary point
+    * file, replacing the file if it exists.
+    *
+    * @param filename name of the point file
+    * @throws IOException if the file cannot be written
+    */
+   public void write(String filename) throws IOException {
+      try (FileChannel channel = FileChannel.open(Paths.get(filename),
+            StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+         ByteBuffer buffer = ByteBuffer.allocate(BLOCK);
+         buffer.putInt(MAGIC).putInt(size);
+         writeInts(channel, buffer, xs, size);
+         writeInts(channel, buffer, ys, size);
+         drain(channel, buffer);
+      }
+   }
+
+   /**
+    * Adds the point p to the end of this set.
+    *
+    * @param p point to be added
+    */
+   public void add(Point p) {
+      add(p.x(), p.y());
+   }
+
+   /**
+    * Adds the point (x, y) to the end of this set. If either x or y is
+    * negative, throw an IllegalArgumentException.
+    *
+    * @param x x coordinate
+    * @param y y coordinate
+    * @throws IllegalArgumentException as per above
+    */
+   public void add(int x, int y) {
+      if (x < 0 || y < 0) {
+         throw new IllegalArgumentException();
+      }
+      if (size == xs.length) {
+         int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+         xs = Arrays.copyOf(xs, capacity);
+         ys = Arrays.copyOf(ys, capacity);
+      }
+      xs[size] = x;
+      ys[size] = y;
+      size++;
+   }
+
+   /**
+    * Returns the number of points in this set.
+    *
+    * @return number of points
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the x coordinate of the point at index i. The index is not
+    * checked against size.
+    *
+    * @param i index of the point
+    * @return x coordinate
+    */
+   public int x(int i) {
+      return xs[i];
+   }
+
+   /**
+    * Returns the y coordinate of the point at index i. The index is not
+    * checked against size.
+    *
+    * @param i index of the point
+    * @return y coordinate
+    */
+   public int y(int i) {
+      return ys[i];
+   }
+
+   /**
+    * Returns a new Point for the point at index i. This method throws
+    * IndexOutOfBoundsException if i < 0 or i >= size.
+    *
+    * @param i index of the point
+    * @return the point
+    * @throws IndexOutOfBoundsException as specified above
+    */
+   public Point get(int i) {
+      if (i < 0 || i >= size) {
+         throw new IndexOutOfBoundsException();
+      }
+      return new Point(xs[i], ys[i]);
+   }
+
+   /**
+    * Returns the slope key, as defined by Point.slopeKey, of the line
+    * segment between the points at indexes i and j.
+    *
+    * @param i index of one end of the line segment
+    * @param j index of the other end of the line segment
+    * @return reduced direction of the line segment
+    */
+   public long slopeKey(int i, int j) {
+      return Point.slopeKey(xs[j] - xs[i], ys[j] - ys[i]);
+   }
+
+   /**
+    * Returns a new point set holding the points of this one in ascending
+    * natural order, first by y value and then by x value. Each point is
+    * packed into one long with y in the high half, so the sort is a
+    * primitive sort that creates no objects.
+    *
+    * @return sorted copy of this point set
+    */
+   public PointSet sorted() {
+      return sorted(false);
+   }
+
+   /**
+    * Returns a new point set holding each point of this one once, in
+    * ascending natural order as sorted does.
+    *
+    * @return sorted copy of this point set without duplicates
+    */
+   public PointSet distinct() {
+      return sorted(true);
+   }
+
+   /**
+    * Sorts the points as packed longs and copies them into a new point
+    * set, skipping repeats of the previous point if distinct is true.
+    */
+   private PointSet sorted(boolean distinct) {
+      long[] packed = new long[size];
+      for (int i = 0; i < size; i++) {
+         packed[i] = ((long) ys[i] << 32) | xs[i];
+      }
+      Arrays.sort(packed);
+
+      PointSet sorted = new PointSet(size);
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+         if (distinct && i > 0 && packed[i] == packed[i - 1]) {
+            continue;
+         }
+         sorted.xs[count] = (int) packed[i];
+         sorted.ys[count] = (int) (packed[i] >>> 32);
+         count++;
+      }
+      sorted.size = count;
+      return sorted;
+   }
+
+   /**
+    * Returns a new array of Points holding the points of this set, in
+    * order.
+    *
+    * @return array of the points
+    */
+   public Point[] toArray() {
+      Point[] a = new Point[size];
+      for (int i = 0; i < size; i++) {
+         a[i] = new Point(xs[i], ys[i]);
+      }
+      return a;
+   }
+
+   /**
+    * Reads the rest of a binary point file of the given length, after
+    * checking its header and length.
+    */
+   private static PointSet readBinary(FileChannel channel, long length)
+         throws IOException {
+      int count = channel.map(FileChannel.MapMode.READ_ONLY, 4, 4).getInt();
+      if (count < 0 || length != HEADER + 8L * count) {
+         throw new IOException("malformed binary point file");
+      }
+   
+      PointSet set = new PointSet(count);
+      readInts(channel, HEADER, set.xs, count);
+      readInts(channel, HEADER + 4L * count, set.ys, count);
+      for (int i = 0; i < count; i++) {
+         if ((set.xs[i] | set.ys[i]) < 0) {
+            throw new IOException("negative coordinate in point file");
+         }
+      }
+      set.size = count;
+      return set;
+   }
+
+   /**
+    * Copies count big-endian ints starting at byte position in channel
+    * into a, mapping at most WINDOW bytes at a time.
+    */
+   private static void readInts(FileChannel channel, long position, int[] a, int count)
+         throws IOException {
+      int done = 0;
+      while (done < count) {
+         int n = (int) Math.min(count - done, WINDOW / 4);
+         channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * done, 4L * n)
+            .asIntBuffer().get(a, done, n);
+         done += n;
+      }
+   }
+
+   /**
+    * Writes the first count ints of a to channel through buffer.
+    */
+   private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] a, int count)
+         throws IOException {
+      int done = 0;
+      while (done < count) {
+         if (buffer.remaining() < 4) {
+            drain(channel, buffer);
+         }
+         int n = Math.min(count - done, buffer.remaining() / 4);
+         buffer.asIntBuffer().put(a, done, n);
+         buffer.position(buffer.position() + 4 * n);
+         done += n;
+      }
+   }
+
+   /**
+    * Writes everything in buffer to channel and empties buffer.
+    */
+   private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+      buffer.clear();
+   }
+
+   /**
+    * Provides an iterator over the points in this set, in order. A new
+    * Point is created for each point returned.
+    */
+   @Override
+   public Iterator<Point> iterator() {
+      return new PointIterator();
+   }
+
+   /**
+    * Iterates over the points in index order.
+    */
+   private class PointIterator implements Iterator<Point> {
+
+      /** index of the next point to return. */
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+         return next < size;
+      }
+
+      @Override
+      public Point next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return get(next++);
+      }
+   }
+
+   /**
+    * Parses a text point file one mapped window at a time. Numbers may be
+    * split across windows, so the partly read number is kept between
+    * calls to parse.
+    */
+   private static final class TextReader {
+   
+      /** points read so far, or null until the count has been read. */
+      private PointSet set;
+   
+      /** coordinates still to be read once the count is known. */
+      private long remaining;
+   
+      /** x coordinate waiting for its y coordinate. */
+      private int x;
+   
+      /** true if x holds a coordinate. */
+      private boolean haveX;
+   
+      /** magnitude of the number being read. */
+      private long value;
+   
+      /** number of digits in the number being read. */
+      private int digits;
+   
+      /** true if the number being read had a sign. */
+      private boolean signed;
+   
+      /** true if the number being read is negative. */
+      private boolean negative;
+   
+      /**
+       * Returns true once every point has been read.
+       */
+      boolean done() {
+         return set != null && remaining == 0;
+      }
+   
+      /**
+       * Parses the bytes in buffer, stopping once every point is read.
+       */
+      void parse(MappedByteBuffer buffer) throws IOException {
+         int limit = buffer.limit();
+         for (int i = 0; i < limit && !done(); i++) {
+            int c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+               value = value * 10 + (c - '0');
+               if (value > 1L << 31) {
+                  throw new IOException("number too large in point file");
+               }
+               digits++;
+            }
+            else if (c == ' ' || c == '\n' || c == '\r' || c == '\t'
+                  || c == '\f' || c == 0x0B) {
+               if (digits > 0 || signed) {
+                  endNumber();
+               }
+            }
+            else if ((c == '-' || c == '+') && digits == 0 && !signed) {
+               signed = true;
+               negative = c == '-';
+            }
+            else {
+               throw new IOException("unexpected character in point file");
+            }
+         }
+      }
+   
+      /**
+       * Finishes the last number and returns the points read.
+       */
+      PointSet finish() throws IOException {
+         if (digits > 0 || signed) {
+            endNumber();
+         }
+         if (!done()) {
+            throw new EOFException("point file ends early");
+         }
+         return set;
+      }
+   
+      /**
+       * Stores the number just read as the count or as a coordinate.
+       */
+      private void endNumber() throws IOException {
+         long n = negative ? -value : value;
+         if (digits == 0 || n > Integer.MAX_VALUE) {
+            throw new IOException("malformed number in point file");
+         }
+         value = 0;
+         digits = 0;
+         signed = false;
+         negative = false;
+      
+         if (set == null) {
+            if (n < 0) {
+               throw new IOException("negative point count");
+            }
+            set = new PointSet((int) n);
+            remaining = 2 * n;
+         }
+         else if (!haveX) {
+            x = (int) n;
+            haveX = true;
+            remaining--;
+         }
+         else {
+            set.add(x, (int) n);
+            haveX = false;
+            remaining--;
+         }
+      }
+   }
+
+}
@@ -0,0 +1,202 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * ArrayDoubleEndedList.java implements DoubleEndedList with a circular
+ * array. The elements occupy a run of slots that may wrap around the end
+ * of the array, so all four end operations are O(1) amortized and no
+ * object is allocated per element. The capacity is always a power of two,
+ * so positions wrap with a mask instead of a division. The array doubles
+ * when it is full and halves when it falls to a quarter full, so a list
+ * that hovers around one size does not resize over and over.
+ */
+public class ArrayDoubleEndedList<T> implements DoubleEndedList<T> {
+
+   private static final int MIN_CAPACITY = 8;
+   private static final int MAX_CAPACITY = 1 << 30;
+
+   private T[] elements;
+   private int front;
+   private int size;
+
+   /**
+    * Creates an empty list.
+    */
+   public ArrayDoubleEndedList() {
+      this(MIN_CAPACITY);
+   }
+
+   /**
+    * Creates an empty list with room for at least capacity elements.
+    * @throw IllegalArgumentException if capacity is negative.
+    */
+   @SuppressWarnings("unchecked")
+   public ArrayDoubleEndedList(int capacity) {
+      if (capacity < 0) {
+         throw new IllegalArgumentException();
+      }
+      int length = MIN_CAPACITY;
+      while (length < capacity && length < MAX_CAPACITY) {
+         length <<= 1;
+      }
+      elements = (T[]) new Object[length];
+      front = 0;
+      size = 0;
+   }
+
+   /**
+    * @return size of the list
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return true if the list is empty with no elements.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Creates an iterator for the elements in the list, from front to end.
+    * @return iterator.
+    */
+   public Iterator<T> iterator() {
+      return new CircularIterator();
+   }
+
+   /**
+    * Adds element to front of list.
+    * @throw IllegalArgumentException if element is null.
+    * @throw IllegalStateException if the list already holds 2^30 elements.
+    */
+   public void addFirst(T element) {
+      if (element == null) {
+         throw new IllegalArgumentException();
+      }
+      if (size == elements.length) {
+         grow();
+      }
+
+      front = (front - 1) & (elements.length - 1);
+      elements[front] = element;
+      size++;
+   }
+
+   /**
+    * Adds element to the end of the list.
+    * @throw IllegalArgumentException if element is null.
+    * @throw IllegalStateException if the list already holds 2^30 elements.
+    */
+   public void addLast(T element) {
+      if (element == null) {
+         throw new IllegalArgumentException();
+      }
+      if (size == elements.length) {
+         grow();
+      }
+
+      elements[(front + size) & (elements.length - 1)] = element;
+      size++;
+   }
+
+   /**
+    * Delete and return the element at the front of the list.
+    * If the list is empty, this method returns null.
+    */
+   public T removeFirst() {
+      if (size == 0) {
+         return null;
+      }
+
+      T result = elements[front];
+      elements[front] = null;
+      front = (front + 1) & (elements.length - 1);
+      size--;
+      shrinkIfSparse();
+      return result;
+   }
+
+   /**
+    * Delete and return the element at the end of the list.
+    * If the list is empty, this method returns null.
+    */
+   public T removeLast() {
+      if (size == 0) {
+         return null;
+      }
+
+      int last = (front + size - 1) & (elements.length - 1);
+      T result = elements[last];
+      elements[last] = null;
+      size--;
+      shrinkIfSparse();
+      return result;
+   }
+
+   /**
+    * Doubles the array, which is full. The length is checked before it is
+    * doubled, because doubling MAX_CAPACITY overflows.
+    */
+   private void grow() {
+      if (elements.length == MAX_CAPACITY) {
+         throw new IllegalStateException();
+      }
+      resize(elements.length << 1);
+   }
+
+   /**
+    * Halves the array if it is no more than a quarter full.
+    */
+   private void shrinkIfSparse() {
+      if (elements.length > MIN_CAPACITY && size <= elements.length >>> 2) {
+         resize(elements.length >>> 1);
+      }
+   }
+
+   /**
+    * Moves the elements to the start of a new array of the given length,
+    * copying the two parts of a wrapped run separately.
+    */
+   @SuppressWarnings("unchecked")
+   private void resize(int capacity) {
+      T[] a = (T[]) new Object[capacity];
+      int firstPart = Math.min(size, elements.length - front);
+      System.arraycopy(elements, front, a, 0, firstPart);
+      System.arraycopy(elements, 0, a, firstPart, size - firstPart);
+      elements = a;
+      front = 0;
+   }
+
+   /**
+    * Nested class that makes an iterator as only one top-level class
+    * is permitted for DoubleEndedList.
+    */
+   private class CircularIterator implements Iterator<T> {
+      private int next = 0;
+
+    /**
+     * Returns true if there is at least one more element in Iterator
+     *
+     * @return true if at least one more element
+     */
+      public boolean hasNext() {
+         return next < size;
+      }
+
+     /**
+      * Returns next element in Interation.
+      *
+      * @return next element
+      * @throw NoSuchElementException if there are no more elements.
+      */
+      public T next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return elements[(front + next++) & (elements.length - 1)];
+      }
+   }
+
+}
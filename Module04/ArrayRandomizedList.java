@@ -1,6 +1,8 @@
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.Random;
 import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
 
 /**
  * ArrayRandomizedList.java. Class that creates a list with order that is
@@ -14,6 +16,18 @@ import java.util.NoSuchElementException;
  * high probability have different iteration sequences. Worst-case time
  * complexity must be O(1).
  *
+ * Random choices come from one SplittableRandom held by the list, so no
+ * operation allocates a generator and a list made with a seed makes the
+ * same choices on every run. Iterators neither copy nor reorder the
+ * array: each one walks a keyed pseudo-random permutation of the indexes
+ * in O(1) extra memory, so any number of them can run at once. The list
+ * must not be changed while an iterator is in use.
+ *
+ * The batch operations addAll, removeMany and sample(n, withReplacement)
+ * resize the array at most once per call and move elements with
+ * System.arraycopy, so they are much cheaper than the same number of
+ * single-element calls.
+ *
  * @author  Tom Fenyak.
  * @version June 15 2018.
  */
@@ -22,6 +36,7 @@ public class ArrayRandomizedList<T> implements RandomizedList<T>{
  
    private T[] elements;
    private int size;
+   private final SplittableRandom random;
    private static final int DEFAULT_CAPACITY = 10;
  
    public ArrayRandomizedList() {
@@ -31,10 +46,27 @@ public class ArrayRandomizedList<T> implements RandomizedList<T>{
    /**
     * Constructor for class.
     */
+   public ArrayRandomizedList(int capacity) {
+      this(capacity, new SplittableRandom());
+   }
+
+   /**
+    * Constructor for a list whose random choices, and those of its
+    * iterators, are the same on every run that uses the same seed and
+    * the same sequence of operations.
+    */
+   public ArrayRandomizedList(int capacity, long seed) {
+      this(capacity, new SplittableRandom(seed));
+   }
+
+   /**
+    * Constructor that uses the given source of random choices.
+    */
    @SuppressWarnings("unchecked")
-    public ArrayRandomizedList(int capacity) {
+   private ArrayRandomizedList(int capacity, SplittableRandom random) {
       elements = (T[]) new Object[capacity];
       size = 0;
+      this.random = random;
    }
    
    /**
@@ -84,9 +116,8 @@ public class ArrayRandomizedList<T> implements RandomizedList<T>{
          return null;
       }
     
-      Random r = new Random();
     // Randomly selects element to remove and stores in rValue.
-      int rValue = r.nextInt(size);
+      int rValue = random.nextInt(size);
     // Store removed element in remove
       T remove = elements[rValue];
       elements[rValue] = null;
@@ -116,52 +147,204 @@ public class ArrayRandomizedList<T> implements RandomizedList<T>{
          return null;
       }
    
-      Random r = new Random();
-      int rValue = r.nextInt(size);
+      int rValue = random.nextInt(size);
       return elements[rValue];
    }
    
+   /**
+    * Adds every element of the specified collection to this list, growing
+    * the array at most once. If c or any of its elements is null, this
+    * method throws an IllegalArgumentException and the list is not changed.
+    *
+    * @throw IllegalArgumentException.
+    */
+   public void addAll(Collection<? extends T> c) {
+      if (c == null) {
+         throw new IllegalArgumentException();
+      }
+      Object[] added = c.toArray();
+      for (Object element : added) {
+         if (element == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   
+      int needed = size + added.length;
+      if (needed > elements.length) {
+         resize(Math.max(needed, elements.length * 2));
+      }
+      System.arraycopy(added, 0, elements, size, added.length);
+      size = needed;
+   }
+   
+   /**
+    * Removes min(n, size) elements selected uniformly at random, without
+    * replacement, and returns them in random order. The chosen elements
+    * are swapped to the end of the array in one partial shuffle, copied
+    * out together and the array is shrunk at most once.
+    *
+    * @return list of the removed elements.
+    * @throw IllegalArgumentException if n is negative.
+    */
+   @SuppressWarnings("unchecked")
+   public java.util.List<T> removeMany(int n) {
+      if (n < 0) {
+         throw new IllegalArgumentException();
+      }
+   
+      int count = Math.min(n, size);
+      for (int last = size - 1; last >= size - count; last--) {
+         int chosen = random.nextInt(last + 1);
+         T swap = elements[chosen];
+         elements[chosen] = elements[last];
+         elements[last] = swap;
+      }
+      Object[] removed = new Object[count];
+      System.arraycopy(elements, size - count, removed, 0, count);
+      Arrays.fill(elements, size - count, size, null);
+      size -= count;
+   
+    // Halve the array until it is at least 25% full, as remove does.
+      int capacity = elements.length;
+      while (size > 0 && size < capacity / 4) {
+         capacity /= 2;
+      }
+      if (capacity != elements.length) {
+         resize(capacity);
+      }
+      return (java.util.List<T>) Arrays.asList(removed);
+   }
+   
+   /**
+    * Selects but does not remove n elements selected uniformly at random.
+    * With replacement, each is an independent draw and the result is
+    * empty if the list is. Without replacement, min(n, size) distinct
+    * indexes are drawn with Floyd's algorithm, one draw per index, and
+    * returned in random order.
+    *
+    * @return list of the selected elements.
+    * @throw IllegalArgumentException if n is negative.
+    */
+   @SuppressWarnings("unchecked")
+   public java.util.List<T> sample(int n, boolean withReplacement) {
+      if (n < 0) {
+         throw new IllegalArgumentException();
+      }
+   
+      Object[] sampled;
+      if (withReplacement) {
+         sampled = new Object[size == 0 ? 0 : n];
+         for (int i = 0; i < sampled.length; i++) {
+            sampled[i] = elements[random.nextInt(size)];
+         }
+      }
+      else {
+         int[] chosen = distinctIndexes(Math.min(n, size));
+         sampled = new Object[chosen.length];
+         for (int i = 0; i < chosen.length; i++) {
+            sampled[i] = elements[chosen[i]];
+         }
+      }
+      return (java.util.List<T>) Arrays.asList(sampled);
+   }
+   
+   /**
+    * Returns count distinct indexes in [0, size) in uniformly random
+    * order. Floyd's algorithm picks a uniform subset with one draw per
+    * index, using a small open-addressing table of the indexes taken so
+    * far; a Fisher-Yates pass then makes their order uniform too.
+    */
+   private int[] distinctIndexes(int count) {
+      int[] chosen = new int[count];
+      int[] taken = new int[Integer.highestOneBit(Math.max(1, count)) << 2];
+      int mask = taken.length - 1;
+      for (int j = size - count, i = 0; j < size; j++, i++) {
+         int index = random.nextInt(j + 1);
+         if (!take(taken, mask, index)) {
+            take(taken, mask, j);
+            index = j;
+         }
+         chosen[i] = index;
+      }
+   
+      for (int i = count - 1; i > 0; i--) {
+         int other = random.nextInt(i + 1);
+         int swap = chosen[i];
+         chosen[i] = chosen[other];
+         chosen[other] = swap;
+      }
+      return chosen;
+   }
+   
+   /**
+    * Adds index to the table of taken indexes, which holds each index
+    * plus one so that zero marks an empty slot. Returns false if index
+    * was already taken.
+    */
+   private static boolean take(int[] taken, int mask, int index) {
+      int slot = (index * 0x9E3779B9) & mask;
+      while (taken[slot] != 0) {
+         if (taken[slot] == index + 1) {
+            return false;
+         }
+         slot = (slot + 1) & mask;
+      }
+      taken[slot] = index + 1;
+      return true;
+   }
+   
    /**
     * Creates an interator for the elements in the list
     */
    public Iterator<T> iterator() {
-      return new ArrayIterator(elements, size);
+      return new ShuffledIterator(size, random.nextLong(), random.nextLong());
    }
    
    /**
     * Resizes the array
     */
    private void resize(int capacity) {
-      T[] a = (T[]) new Object[capacity];
-      for (int i = 0; i < size(); i++) {
-         a[i] = elements[i];
-      }
-      elements = a;
+      elements = Arrays.copyOf(elements, capacity);
    }
    
    /**
     * Nested class that makes an iterator as only one top-level class
-    * is permitted for RandomizedList.
+    * is permitted for RandomizedList. The indexes [0, count) are visited
+    * in the order given by an eight-round Feistel network keyed from the
+    * list's generator. The network is a bijection on the smallest domain
+    * of an even number of bits that holds every index, less than four
+    * times count, and outputs outside [0, count) are skipped.
     */
-   public class ArrayIterator<T> implements Iterator<T> {
-      private T[] items;
-      private int length;
-    
+   private class ShuffledIterator implements Iterator<T> {
+      private static final int ROUNDS = 8;
+
+      private final int count;
+      private final int halfBits;
+      private final int halfMask;
+      private final long key1;
+      private final long key2;
+      private long position;
+      private int returned;
+
     /**
-     * Constructor for ArrayIterator.
+     * Constructor for an iterator over the first countIn elements.
      */
-      public ArrayIterator(T[] elements, int sizeIn) {
-         items = elements;
-         length = sizeIn;
+      ShuffledIterator(int countIn, long key1In, long key2In) {
+         count = countIn;
+         int bits = 32 - Integer.numberOfLeadingZeros(Math.max(0, count - 1));
+         halfBits = (bits + 1) / 2;
+         halfMask = (1 << halfBits) - 1;
+         key1 = key1In;
+         key2 = key2In;
       }
-      
+
       /**
        * Returns as long as there is a next element.
        */
       public boolean hasNext() {
-         return (length > 0);
+         return returned < count;
       }
-       
+
        /**
         * Returns next item in list.
         *
@@ -171,22 +354,41 @@ public class ArrayRandomizedList<T> implements RandomizedList<T>{
          if (!hasNext()) {
             throw new NoSuchElementException();
          }
-        
-         Random r = new Random();
-         int rValue = r.nextInt(length);
-         T next = items[rValue];
-        // Switch rValue with last item if it is not last item
-         if (rValue != (length - 1)) {
-            items[rValue] = items[length - 1];
-            items[length - 1] = next;
-         }
-         length--;
-         return next;
+
+         long index;
+         do {
+            index = permute(position++);
+         } while (index >= count);
+         returned++;
+         return elements[(int) index];
       }
-      
+
       public void remove() {
          throw new UnsupportedOperationException();
       }
-      
+
+      /**
+       * Maps i, in [0, 2^(2 * halfBits)), to its place in the permutation.
+       */
+      private long permute(long i) {
+         int left = (int) (i >>> halfBits);
+         int right = (int) i & halfMask;
+         for (int round = 0; round < ROUNDS; round++) {
+            int mixed = left ^ (round(right, round) & halfMask);
+            left = right;
+            right = mixed;
+         }
+         return ((long) left << halfBits) | right;
+      }
+
+      /**
+       * Returns the keyed round function of value for the given round.
+       */
+      private int round(int value, int round) {
+         long x = value ^ (key1 + round * key2);
+         x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+         x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+         return (int) (x ^ (x >>> 33));
+      }
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,413 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * FenwickRandomizedList.java implements WeightedRandomizedList with a
+ * Fenwick tree (binary indexed tree) over the weights of the elements,
+ * which are kept densely packed in an array. Adding an element, removing
+ * one, changing a weight, sampling and removing at random are all
+ * O(log n): a random point in [0, total weight) is located by walking
+ * down the tree, and removing an element moves the last one into its
+ * slot. A hash map from element to slot finds elements by equality.
+ *
+ * The capacity is always a power of two, so the last node of the tree
+ * holds the total weight. Each change to a weight is applied to the tree
+ * as a difference, so rounding errors build up in its sums; the tree is
+ * rebuilt from the exact weights in O(n) once there have been as many
+ * changes as it has slots, which keeps the errors small at O(1) amortized
+ * cost. The errors are relative to the largest total the tree has held,
+ * so taking a large weight out cancels most of the sums it was part of
+ * and leaves them mostly error. The tree is therefore also rebuilt when
+ * the total falls to a small fraction of the largest total since it was
+ * last built.
+ */
+public class FenwickRandomizedList<T> implements WeightedRandomizedList<T> {
+
+   private static final int MIN_CAPACITY = 8;
+   private static final int MAX_CAPACITY = 1 << 30;
+
+   /** fraction of the peak total below which the tree is rebuilt. */
+   private static final double CANCELLATION_LIMIT = 0x1p-16;
+
+   private T[] elements;
+   private double[] weights;
+
+   /**
+    * Fenwick tree over weights: tree[i] is the sum of weights[j] for
+    * i - (i & -i) <= j < i. Its length is the capacity plus one.
+    */
+   private double[] tree;
+   private final Map<T, Integer> positions;
+   private int size;
+   private int changes;
+
+   /** largest total weight since the tree was last built. */
+   private double peak;
+   private final SplittableRandom random;
+
+   /**
+    * Creates an empty list.
+    */
+   public FenwickRandomizedList() {
+      this(MIN_CAPACITY);
+   }
+
+   /**
+    * Creates an empty list with room for at least capacity elements.
+    * @throw IllegalArgumentException if capacity is negative.
+    */
+   public FenwickRandomizedList(int capacity) {
+      this(capacity, new SplittableRandom());
+   }
+
+   /**
+    * Creates an empty list whose random choices, and those of its
+    * iterators, are the same on every run that uses the same seed and the
+    * same sequence of operations.
+    * @throw IllegalArgumentException if capacity is negative.
+    */
+   public FenwickRandomizedList(int capacity, long seed) {
+      this(capacity, new SplittableRandom(seed));
+   }
+
+   /**
+    * Creates an empty list that uses the given source of random choices.
+    */
+   @SuppressWarnings("unchecked")
+   private FenwickRandomizedList(int capacity, SplittableRandom random) {
+      if (capacity < 0) {
+         throw new IllegalArgumentException();
+      }
+      int length = MIN_CAPACITY;
+      while (length < capacity && length < MAX_CAPACITY) {
+         length <<= 1;
+      }
+      elements = (T[]) new Object[length];
+      weights = new double[length];
+      tree = new double[length + 1];
+      positions = new HashMap<T, Integer>();
+      size = 0;
+      this.random = random;
+   }
+
+   /**
+    * @return size of the list.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return true if the list is empty with no elements.
+    */
+   public boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * Adds element with weight 1.
+    * @throw IllegalArgumentException if element is null or already in the
+    *        list.
+    */
+   public void add(T element) {
+      add(element, 1.0);
+   }
+
+   /**
+    * Adds element with the given weight.
+    * @throw IllegalArgumentException if element is null or already in the
+    *        list, or weight is not a positive finite number.
+    * @throw IllegalStateException if the list already holds 2^30 elements.
+    */
+   public void add(T element, double weight) {
+      if (element == null || !isValidWeight(weight) || positions.containsKey(element)) {
+         throw new IllegalArgumentException();
+      }
+      if (size == elements.length) {
+         grow();
+      }
+
+      elements[size] = element;
+      weights[size] = weight;
+      positions.put(element, size);
+      update(size, weight);
+      size++;
+      changed();
+   }
+
+   /**
+    * Removes and returns an element selected at random with probability
+    * proportional to its weight. If the list is empty, this method returns
+    * null.
+    */
+   public T remove() {
+      if (size == 0) {
+         return null;
+      }
+      return removeAt(find(random.nextDouble() * totalWeight()));
+   }
+
+   /**
+    * Returns, without removing it, an element selected at random with
+    * probability proportional to its weight. If the list is empty, this
+    * method returns null.
+    */
+   public T sample() {
+      if (size == 0) {
+         return null;
+      }
+      return elements[find(random.nextDouble() * totalWeight())];
+   }
+
+   /**
+    * @return weight of element, or 0 if it is not in the list.
+    */
+   public double weight(T element) {
+      Integer i = positions.get(element);
+      return i == null ? 0.0 : weights[i];
+   }
+
+   /**
+    * Changes the weight of element.
+    * @throw IllegalArgumentException if element is not in the list, or
+    *        weight is not a positive finite number.
+    */
+   public void setWeight(T element, double weight) {
+      Integer i = positions.get(element);
+      if (i == null || !isValidWeight(weight)) {
+         throw new IllegalArgumentException();
+      }
+      update(i, weight - weights[i]);
+      weights[i] = weight;
+      changed();
+   }
+
+   /**
+    * Removes element from the list.
+    * @return true if element was in the list.
+    */
+   public boolean remove(T element) {
+      Integer i = positions.get(element);
+      if (i == null) {
+         return false;
+      }
+      removeAt(i);
+      return true;
+   }
+
+   /**
+    * @return sum of the weights of the elements in the list.
+    */
+   public double totalWeight() {
+      return size == 0 ? 0.0 : tree[elements.length];
+   }
+
+   /**
+    * Creates an iterator that returns the elements in weighted random
+    * order: each next element is selected from those not yet returned
+    * with probability proportional to its weight.
+    * @return iterator.
+    */
+   public Iterator<T> iterator() {
+      return new WeightedIterator();
+   }
+
+   /**
+    * Returns true if weight is positive and finite.
+    */
+   private static boolean isValidWeight(double weight) {
+      return weight > 0.0 && weight < Double.POSITIVE_INFINITY;
+   }
+
+   /**
+    * Removes and returns the element in slot i, moving the last element
+    * into its place.
+    */
+   private T removeAt(int i) {
+      T removed = elements[i];
+      positions.remove(removed);
+      int last = size - 1;
+      if (i != last) {
+         update(i, weights[last] - weights[i]);
+         update(last, -weights[last]);
+         elements[i] = elements[last];
+         weights[i] = weights[last];
+         positions.put(elements[i], i);
+      }
+      else {
+         update(i, -weights[i]);
+      }
+      elements[last] = null;
+      weights[last] = 0.0;
+      size--;
+
+      if (elements.length > MIN_CAPACITY && size <= elements.length >>> 2) {
+         resize(elements.length >>> 1);
+      }
+      else {
+         changed();
+      }
+      return removed;
+   }
+
+   /**
+    * Returns the slot of the element whose share of [0, total weight)
+    * holds target, by walking down the tree from its root.
+    */
+   private int find(double target) {
+      int pos = 0;
+      for (int step = elements.length; step > 0; step >>>= 1) {
+         int next = pos + step;
+         if (next <= size && tree[next] <= target) {
+            pos = next;
+            target -= tree[next];
+         }
+      }
+      // Rounding can only carry the walk past the last element.
+      return Math.min(pos, size - 1);
+   }
+
+   /**
+    * Adds delta to the weight of slot i in the tree.
+    */
+   private void update(int i, double delta) {
+      for (int j = i + 1; j < tree.length; j += j & -j) {
+         tree[j] += delta;
+      }
+   }
+
+   /**
+    * Counts one change to the tree, rebuilding it once the changes since
+    * it was last built match its number of slots, or once the total has
+    * cancelled down to a small fraction of its peak.
+    */
+   private void changed() {
+      double total = tree[elements.length];
+      if (++changes >= elements.length || total < peak * CANCELLATION_LIMIT) {
+         build();
+      }
+      else if (total > peak) {
+         peak = total;
+      }
+   }
+
+   /**
+    * Rebuilds the tree from the weights in O(n).
+    */
+   private void build() {
+      Arrays.fill(tree, 0.0);
+      for (int i = 1; i < tree.length; i++) {
+         tree[i] += weights[i - 1];
+         int parent = i + (i & -i);
+         if (parent < tree.length) {
+            tree[parent] += tree[i];
+         }
+      }
+      changes = 0;
+      peak = tree[elements.length];
+   }
+
+   /**
+    * Doubles the arrays, which are full. The length is checked before it
+    * is doubled, because doubling MAX_CAPACITY overflows.
+    */
+   private void grow() {
+      if (elements.length == MAX_CAPACITY) {
+         throw new IllegalStateException();
+      }
+      resize(elements.length << 1);
+   }
+
+   /**
+    * Moves the elements and weights to arrays of the given length and
+    * rebuilds the tree to match.
+    */
+   private void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+      weights = Arrays.copyOf(weights, capacity);
+      tree = new double[capacity + 1];
+      build();
+   }
+
+   /**
+    * Nested class that makes an iterator as only one top-level class
+    * is permitted for WeightedRandomizedList. Each element is given an
+    * exponentially distributed key with rate equal to its weight, and the
+    * elements are returned in order of their keys from a binary min-heap.
+    * The smallest of such keys belongs to each element with probability
+    * proportional to its weight, and the distribution is memoryless, so
+    * this is the weighted order. Creating the iterator is O(n) and each
+    * element is O(log n), so taking the first few is cheap.
+    */
+   private class WeightedIterator implements Iterator<T> {
+      private final int[] heap;
+      private final double[] keys;
+      private int count;
+
+    /**
+     * Constructor that keys every element and heapifies them.
+     */
+      WeightedIterator() {
+         count = size;
+         heap = new int[count];
+         keys = new double[count];
+         for (int i = 0; i < count; i++) {
+            heap[i] = i;
+            keys[i] = -Math.log(1.0 - random.nextDouble()) / weights[i];
+         }
+         for (int i = (count >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, heap[i]);
+         }
+      }
+
+      /**
+       * Returns true if there is at least one more element.
+       */
+      public boolean hasNext() {
+         return count > 0;
+      }
+
+       /**
+        * Returns the next element in weighted random order.
+        *
+        * @throw NoSuchElementException when there are no more elements
+        */
+      public T next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         int first = heap[0];
+         count--;
+         if (count > 0) {
+            siftDown(0, heap[count]);
+         }
+         return elements[first];
+      }
+
+      /**
+       * Places element i at heap position j and moves it down until both
+       * children have larger keys.
+       */
+      private void siftDown(int j, int i) {
+         double key = keys[i];
+         int half = count >>> 1;
+         while (j < half) {
+            int child = 2 * j + 1;
+            if (child + 1 < count && keys[heap[child + 1]] < keys[heap[child]]) {
+               child++;
+            }
+            if (key <= keys[heap[child]]) {
+               break;
+            }
+            heap[j] = heap[child];
+            j = child;
+         }
+         heap[j] = i;
+      }
+   }
+
+}
@@ -19,6 +19,32 @@ public class ListFactory {
       return null;
    }
 
+   /**
+    * Return an instance of a class that implements WeightedRandomizedList.
+    * Every operation, including weighted sample and remove, is O(log n).
+    */
+   public static <T> WeightedRandomizedList<T> makeWeightedRandomizedList() {
+      return new FenwickRandomizedList<T>();
+   }
+
+   /**
+    * Return an instance of a class that implements RandomizedList and
+    * may be used by many threads at once.
+    */
+   public static <T> RandomizedList<T> makeConcurrentRandomizedList() {
+      return new StripedRandomizedList<T>();
+   }
+
+   /**
+    * Ways a DoubleEndedList can store its elements.
+    */
+   public enum Storage {
+      /** one linked node per element; see NodeDoubleEndedList. */
+      LINKED,
+      /** a growable circular array; see ArrayDoubleEndedList. */
+      ARRAY
+   }
+
    /**
     * Return an instance of a class that implements DoubleEndedList.
     */
@@ -29,4 +55,16 @@ public class ListFactory {
       return new NodeDoubleEndedList();
    }
 
+   /**
+    * Return an instance of a class that implements DoubleEndedList with
+    * the given storage. ARRAY storage iterates faster and uses far less
+    * memory per element; LINKED storage never copies elements.
+    */
+   public static <T> DoubleEndedList<T> makeDoubleEndedList(Storage storage) {
+      if (storage == Storage.ARRAY) {
+         return new ArrayDoubleEndedList<T>();
+      }
+      return new NodeDoubleEndedList<T>();
+   }
+
 }
\ No newline at end of file
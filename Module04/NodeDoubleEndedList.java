@@ -1,5 +1,4 @@
 import java.util.Iterator;
-import java.util.Random;
 import java.util.NoSuchElementException;
 
 /**
@@ -15,6 +14,7 @@ import java.util.NoSuchElementException;
 public class NodeDoubleEndedList<T> implements DoubleEndedList<T> {
  
    Node front;
+   Node back;
    int size;
  
  /**
@@ -23,6 +23,7 @@ public class NodeDoubleEndedList<T> implements DoubleEndedList<T> {
    @SuppressWarnings("unchecked")
    public NodeDoubleEndedList() {
       front = null;
+      back = null;
       size = 0;
    }
   
@@ -49,7 +50,7 @@ public class NodeDoubleEndedList<T> implements DoubleEndedList<T> {
    }
    
    /**
-    * Adds element to front of list.
+    * Adds element to front of list in O(1) time.
     * @throw IllegalArgumentException if element is null.
     */
    public void addFirst(T element) {
@@ -59,102 +60,87 @@ public class NodeDoubleEndedList<T> implements DoubleEndedList<T> {
     
       Node current = new Node(element);
       current.next = front;
+      if (front == null) {
+         back = current;
+      }
+      else {
+         front.prev = current;
+      }
       front = current;
       size++;
    }
    
    /**
-    * Adds element to the end of the list.
+    * Adds element to the end of the list in O(1) time.
     * @throw IllegalArgumentException if element is null.
     */
    public void addLast(T element) {
-      Node current = front;
-      
       if (element == null) {
          throw new IllegalArgumentException();
       }
     
-      if (isEmpty()) {
-         addFirst(element);
-         return;
+      Node current = new Node(element);
+      current.prev = back;
+      if (back == null) {
+         front = current;
       }
-      
       else {
-         for (int i = 0; i < size - 1; i++) {
-            current = current.next;
-         }
-         current.next = new Node(element);
-         size++;
+         back.next = current;
       }
+      back = current;
+      size++;
    }
    
    /**
-    * Delete and return the element at the front of the list.
+    * Delete and return the element at the front of the list in O(1) time.
     * If the list is empty, this method returns null.
     */
    public T removeFirst() {
-      Node current = new Node();
-      Node result = new Node();
-   
       if (size == 0) {
          return null;
       }
    
-      if (size == 1) {
-         current = front;
-         front = null;
-         size--;
-         return current.element;
-      }
-   
-      result = front;
-      current = front.next;
+      T result = front.element;
       front = front.next;
+      if (front == null) {
+         back = null;
+      }
+      else {
+         front.prev = null;
+      }
       size--;
-      return result.element;
+      return result;
    }
    
    /**
-    * Delete and return the element at the end of the list.
+    * Delete and return the element at the end of the list in O(1) time.
     * If the list is empty, this method returns null.
     */
    public T removeLast() {
-      Node current = front;
-      Node result = new Node();
-    
       if (size == 0) {
          return null;
       }
       
-      else if (size == 1) {
-         result = front;
+      T result = back.element;
+      back = back.prev;
+      if (back == null) {
          front = null;
-         size--;
       }
-      
       else {
-         for (int i = 0; i < size - 2; i++) {
-            current = current.next;
-         }
-      
-         result = current.next;
-         current.next = null;
-         size--;
+         back.next = null;
       }
-      return result.element;
+      size--;
+      return result;
    }
    
    /**
-    * Nested class that defines the Node class.
+    * Nested class that defines the Node class. Each node links to the
+    * nodes on both sides, so either end can be removed without a walk.
     */
    private class Node {
       T element;
       Node next;
-    
-      public Node() {
-         element = null;
-         next = null;
-      }
+      Node prev;
     
     /**
      * Instantiates a node.
@@ -162,6 +148,7 @@ public class NodeDoubleEndedList<T> implements DoubleEndedList<T> {
       public Node(T e) {
          element = e;
          next = null;
+         prev = null;
       }
    }
     
@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
 /**
  * RandomizedList.java. Describes the abstract behavior of a
  * randomized list collection; that is, a list with order defined as "random
@@ -33,5 +37,70 @@ public interface RandomizedList<T> extends List<T> {
     * return null.
     */
    T sample();
-   
+
+   /**
+    * Adds every element of the specified collection to this list. If the
+    * collection or any of its elements is null, this method throws an
+    * IllegalArgumentException and the list is not changed.
+    */
+   default void addAll(Collection<? extends T> elements) {
+      if (elements == null) {
+         throw new IllegalArgumentException();
+      }
+      for (T element : elements) {
+         if (element == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+      for (T element : elements) {
+         add(element);
+      }
+   }
+
+   /**
+    * Removes n elements selected uniformly at random, without replacement,
+    * from the elements currently in the list and returns them in random
+    * order. If the list holds fewer than n elements, all of them are
+    * removed. If n is negative, this method throws an
+    * IllegalArgumentException.
+    */
+   default java.util.List<T> removeMany(int n) {
+      if (n < 0) {
+         throw new IllegalArgumentException();
+      }
+      java.util.List<T> removed = new ArrayList<T>(Math.min(n, size()));
+      while (removed.size() < n && !isEmpty()) {
+         removed.add(remove());
+      }
+      return removed;
+   }
+
+   /**
+    * Selects but does not remove n elements selected uniformly at random
+    * from the elements currently in the list. With replacement, each
+    * element is selected independently and may be selected more than once;
+    * if the list is empty the result is empty. Without replacement, the
+    * elements are distinct and in random order; if the list holds fewer
+    * than n elements, all of them are returned. If n is negative, this
+    * method throws an IllegalArgumentException.
+    */
+   default java.util.List<T> sample(int n, boolean withReplacement) {
+      if (n < 0) {
+         throw new IllegalArgumentException();
+      }
+      java.util.List<T> sampled = new ArrayList<T>();
+      if (withReplacement) {
+         while (sampled.size() < n && !isEmpty()) {
+            sampled.add(sample());
+         }
+      }
+      else {
+         Iterator<T> shuffled = iterator();
+         while (sampled.size() < n && shuffled.hasNext()) {
+            sampled.add(shuffled.next());
+         }
+      }
+      return sampled;
+   }
+
 }
\ No newline at end of file
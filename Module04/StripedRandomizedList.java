@@ -0,0 +1,383 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StripedRandomizedList.java implements RandomizedList for use by many
+ * threads at once. The elements are spread over a fixed number of
+ * stripes, each an array guarded by its own lock, and every operation
+ * locks at most one stripe, so threads only wait for each other when they
+ * pick the same stripe. Each thread picks stripes with its own
+ * ThreadLocalRandom, and if a stripe is locked it tries another rather
+ * than waiting, so adds spread evenly and no stripe becomes a hot spot.
+ *
+ * To keep sample and remove uniform over all elements rather than over
+ * stripes, they pick a random stripe and a random slot below a bound on
+ * the largest stripe size, and try again if that slot is empty. Because
+ * adds keep the stripes about the same size, most tries succeed. The
+ * bound only grows as elements are added; it is set to the true largest
+ * size when tries keep failing. The list is taken to be empty only when
+ * every stripe is. When no other thread is changing the list, every
+ * element is equally likely to be chosen.
+ *
+ * size and isEmpty add up the stripe sizes without locking, so while
+ * other threads change the list they return a recent value. Iterators
+ * work on a snapshot of the elements taken when they are created, so
+ * they never see later changes and never fail because of them.
+ */
+public class StripedRandomizedList<T> implements RandomizedList<T> {
+
+   private static final int MIN_CAPACITY = 8;
+   private static final int STRIPES_PER_PROCESSOR = 4;
+
+   /** failed tries after which sample and remove lower the bound. */
+   private static final int MISSES_BEFORE_TIGHTENING = 16;
+
+   private final Stripe[] stripes;
+
+   /** no stripe holds more elements than this. */
+   private final AtomicInteger bound = new AtomicInteger();
+
+   /**
+    * Creates an empty list with four stripes per available processor.
+    */
+   public StripedRandomizedList() {
+      this(STRIPES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+   }
+
+   /**
+    * Creates an empty list with the given number of stripes.
+    * @throw IllegalArgumentException if stripeCount is less than 1.
+    */
+   public StripedRandomizedList(int stripeCount) {
+      if (stripeCount < 1) {
+         throw new IllegalArgumentException();
+      }
+      stripes = new Stripe[stripeCount];
+      for (int i = 0; i < stripeCount; i++) {
+         stripes[i] = new Stripe();
+      }
+   }
+
+   /**
+    * @return size of the list.
+    */
+   public int size() {
+      int size = 0;
+      for (Stripe stripe : stripes) {
+         size += stripe.size;
+      }
+      return size;
+   }
+
+   /**
+    * @return true if the list is empty with no elements.
+    */
+   public boolean isEmpty() {
+      for (Stripe stripe : stripes) {
+         if (stripe.size != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Adds the specified element to this list.
+    * @throw IllegalArgumentException if element is null.
+    */
+   public void add(T element) {
+      if (element == null) {
+         throw new IllegalArgumentException();
+      }
+      Stripe stripe = lockAny();
+      try {
+         stripe.ensureCapacity(stripe.size + 1);
+         stripe.elements[stripe.size] = element;
+         stripe.size++;
+         raiseBound(stripe.size);
+      }
+      finally {
+         stripe.unlock();
+      }
+   }
+
+   /**
+    * Adds every element of c to this list, in about equal parts to each
+    * stripe, locking each stripe once. If c or any of its elements is null,
+    * this method throws an IllegalArgumentException and the list is not
+    * changed. The elements become visible to other threads a stripe at a
+    * time.
+    *
+    * @throw IllegalArgumentException.
+    */
+   public void addAll(Collection<? extends T> c) {
+      if (c == null) {
+         throw new IllegalArgumentException();
+      }
+      Object[] added = c.toArray();
+      for (Object element : added) {
+         if (element == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+
+      int part = (added.length + stripes.length - 1) / stripes.length;
+      int start = ThreadLocalRandom.current().nextInt(stripes.length);
+      for (int from = 0, i = start; from < added.length; from += part, i++) {
+         int count = Math.min(part, added.length - from);
+         Stripe stripe = stripes[i % stripes.length];
+         stripe.lock();
+         try {
+            stripe.ensureCapacity(stripe.size + count);
+            System.arraycopy(added, from, stripe.elements, stripe.size, count);
+            stripe.size += count;
+            raiseBound(stripe.size);
+         }
+         finally {
+            stripe.unlock();
+         }
+      }
+   }
+
+   /**
+    * Selects and removes an element selected uniformly at random from the
+    * elements currently in the list. If the list is empty this method
+    * returns null.
+    */
+   public T remove() {
+      return choose(true);
+   }
+
+   /**
+    * Selects but does not remove an element selected uniformly at random
+    * from the elements currently in the list. If the list is empty this
+    * method returns null.
+    */
+   public T sample() {
+      return choose(false);
+   }
+
+   /**
+    * Creates an iterator over a snapshot of the elements in the list, in
+    * uniformly random order. The stripes are copied one at a time, so
+    * while other threads change the list the snapshot may hold elements
+    * that were never all in the list at the same moment.
+    * @return iterator.
+    */
+   public Iterator<T> iterator() {
+      Object[] snapshot = new Object[MIN_CAPACITY];
+      int count = 0;
+      for (Stripe stripe : stripes) {
+         stripe.lock();
+         try {
+            if (count + stripe.size > snapshot.length) {
+               snapshot = Arrays.copyOf(snapshot,
+                  Math.max(count + stripe.size, snapshot.length * 2));
+            }
+            System.arraycopy(stripe.elements, 0, snapshot, count, stripe.size);
+            count += stripe.size;
+         }
+         finally {
+            stripe.unlock();
+         }
+      }
+      return new SnapshotIterator(snapshot, count);
+   }
+
+   /**
+    * Picks a random stripe and a random slot below the bound until the
+    * slot holds an element, then returns it, removing it if remove is
+    * true. Returns null once every stripe is empty.
+    */
+   @SuppressWarnings("unchecked")
+   private T choose(boolean remove) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int misses = 0;
+      int busy = 0;
+      while (true) {
+         int limit = bound.get();
+         if (limit == 0 || misses >= MISSES_BEFORE_TIGHTENING) {
+            limit = tightenBound();
+            misses = 0;
+            if (limit == 0) {
+               if (isEmpty()) {
+                  return null;
+               }
+               // A stripe grew after the scan, and its add has not yet
+               // raised the bound.
+               continue;
+            }
+         }
+
+         Stripe stripe = stripes[random.nextInt(stripes.length)];
+         int slot = random.nextInt(limit);
+         if (slot >= stripe.size) {
+            misses++;
+            continue;
+         }
+         if (busy < stripes.length) {
+            if (!stripe.tryLock()) {
+               busy++;
+               continue;
+            }
+         }
+         else {
+            stripe.lock();
+         }
+
+         try {
+            if (slot < stripe.size) {
+               T chosen = (T) stripe.elements[slot];
+               if (remove) {
+                  stripe.removeAt(slot);
+               }
+               return chosen;
+            }
+         }
+         finally {
+            stripe.unlock();
+         }
+         misses++;
+      }
+   }
+
+   /**
+    * Locks and returns a random stripe, trying others while the ones
+    * picked are locked and waiting only if every try fails.
+    */
+   private Stripe lockAny() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      Stripe stripe = null;
+      for (int i = 0; i < stripes.length; i++) {
+         stripe = stripes[random.nextInt(stripes.length)];
+         if (stripe.tryLock()) {
+            return stripe;
+         }
+      }
+      stripe.lock();
+      return stripe;
+   }
+
+   /**
+    * Raises the bound to at least size.
+    */
+   private void raiseBound(int size) {
+      int limit = bound.get();
+      while (limit < size && !bound.compareAndSet(limit, size)) {
+         limit = bound.get();
+      }
+   }
+
+   /**
+    * Sets the bound to the largest stripe size and returns the new bound.
+    * An add that grows a stripe after the sizes are scanned may still see
+    * the old bound and leave it alone, so after lowering the bound the
+    * sizes are scanned again and the bound raised to match. Either that
+    * scan sees the new size, or the add sees the lowered bound and raises
+    * it itself.
+    */
+   private int tightenBound() {
+      int limit = bound.get();
+      int largest = largestStripe();
+      if (largest < limit && bound.compareAndSet(limit, largest)) {
+         largest = largestStripe();
+      }
+      raiseBound(largest);
+      return bound.get();
+   }
+
+   /**
+    * Returns the size of the largest stripe, read without locking.
+    */
+   private int largestStripe() {
+      int largest = 0;
+      for (Stripe stripe : stripes) {
+         largest = Math.max(largest, stripe.size);
+      }
+      return largest;
+   }
+
+   /**
+    * One stripe: a growable array of elements and the lock that guards
+    * it. size is volatile so that it can be read without the lock.
+    */
+   @SuppressWarnings("serial")
+   private static final class Stripe extends ReentrantLock {
+      private Object[] elements = new Object[MIN_CAPACITY];
+      private volatile int size;
+
+      /**
+       * Grows the array, if needed, to hold at least capacity elements.
+       */
+      void ensureCapacity(int capacity) {
+         if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements,
+               Math.max(capacity, elements.length * 2));
+         }
+      }
+
+      /**
+       * Removes the element in slot i, moving the last one into its
+       * place, and halves the array when it falls to a quarter full.
+       */
+      void removeAt(int i) {
+         int last = size - 1;
+         elements[i] = elements[last];
+         elements[last] = null;
+         size = last;
+         if (elements.length > MIN_CAPACITY && last <= elements.length >>> 2) {
+            elements = Arrays.copyOf(elements, elements.length >>> 1);
+         }
+      }
+   }
+
+   /**
+    * Nested class that makes an iterator as only one top-level class
+    * is permitted for RandomizedList. It shuffles its snapshot lazily,
+    * choosing each next element from those not yet returned.
+    */
+   private class SnapshotIterator implements Iterator<T> {
+      private final Object[] snapshot;
+      private int remaining;
+
+    /**
+     * Constructor for an iterator over the first count elements of
+     * snapshot.
+     */
+      SnapshotIterator(Object[] snapshot, int count) {
+         this.snapshot = snapshot;
+         remaining = count;
+      }
+
+      /**
+       * Returns true if there is at least one more element.
+       */
+      public boolean hasNext() {
+         return remaining > 0;
+      }
+
+       /**
+        * Returns the next element in random order.
+        *
+        * @throw NoSuchElementException when there are no more elements
+        */
+      @SuppressWarnings("unchecked")
+      public T next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         int i = ThreadLocalRandom.current().nextInt(remaining);
+         Object chosen = snapshot[i];
+         remaining--;
+         snapshot[i] = snapshot[remaining];
+         snapshot[remaining] = chosen;
+         return (T) chosen;
+      }
+   }
+
+}
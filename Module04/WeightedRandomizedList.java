@@ -0,0 +1,51 @@
+/**
+ * WeightedRandomizedList.java. Describes the abstract behavior of a
+ * randomized list whose elements each carry a positive weight. The element
+ * accessed by either the sample or remove method is selected at random with
+ * probability proportional to its weight, and an iterator accesses the
+ * elements in the order they would be removed by repeated calls to remove.
+ * Elements are distinct: an element equal to one already in the list cannot
+ * be added again, and an element can be found by equality to change its
+ * weight or remove it.
+ */
+public interface WeightedRandomizedList<T> extends RandomizedList<T> {
+
+   /**
+    * Adds the specified element to this list with weight 1. If the element
+    * is null or is already in the list, this method throws an
+    * IllegalArgumentException.
+    */
+   void add(T element);
+
+   /**
+    * Adds the specified element to this list with the specified weight. If
+    * the element is null or is already in the list, or the weight is not a
+    * positive finite number, this method throws an IllegalArgumentException.
+    */
+   void add(T element, double weight);
+
+   /**
+    * Returns the weight of the specified element, or 0 if it is not in the
+    * list.
+    */
+   double weight(T element);
+
+   /**
+    * Changes the weight of the specified element. If the element is not in
+    * the list, or the weight is not a positive finite number, this method
+    * throws an IllegalArgumentException.
+    */
+   void setWeight(T element, double weight);
+
+   /**
+    * Removes the specified element from the list. Returns true if it was in
+    * the list.
+    */
+   boolean remove(T element);
+
+   /**
+    * Returns the sum of the weights of the elements currently in the list.
+    */
+   double totalWeight();
+
+}
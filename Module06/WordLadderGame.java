@@ -0,0 +1,43 @@
+import java.util.List;
+
+/**
+ * WordLadderGame.java
+ * Defines the methods needed to play a word ladder game. Doublets
+ * implements this interface.
+ */
+public interface WordLadderGame {
+
+   /**
+    * Returns the Hamming distance between two strings, str1 and str2, or
+    * -1 if the strings have different lengths.
+    */
+   int getHammingDistance(String str1, String str2);
+
+   /**
+    * Returns a minimum-length word ladder from start to end, or an empty
+    * list if no word ladder exists.
+    */
+   List<String> getMinLadder(String start, String end);
+
+   /**
+    * Returns all the words that have a Hamming distance of one relative to
+    * the given word.
+    */
+   List<String> getNeighbors(String word);
+
+   /**
+    * Returns the total number of words in the current lexicon.
+    */
+   int getWordCount();
+
+   /**
+    * Checks to see if the given string is a word.
+    */
+   boolean isWord(String str);
+
+   /**
+    * Checks to see if the given sequence of strings is a valid word ladder.
+    */
+   boolean isWordLadder(List<String> sequence);
+
+}
@@ -0,0 +1,421 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ExtractorTests.java. Regression tests for the line extraction strategies
+ * of Module03.
+ */
+public final class ExtractorTests {
+
+   private ExtractorTests() { }
+
+   /**
+    * Runs every Extractor test that passes the suite filter.
+    *
+    * @param suite suite to run the tests on
+    */
+   public static void run(TestSuite suite) {
+      suite.test("Extractor parallel and hashed match getLinesFast on distinct points", () -> {
+         Random random = new Random(10);
+         ForkJoinPool pool = new ForkJoinPool(3);
+         try {
+            for (int trial = 0; trial < 2000; trial++) {
+               List<Point> points = new ArrayList<Point>(
+                  new TreeSet<Point>(randomPoints(random, 2 + random.nextInt(20))));
+               SortedSet<Line> expected = new Extractor(points).getLinesFast();
+               TestSuite.check(expected.equals(new Extractor(points).getLinesFastParallel(pool)),
+                  "parallel");
+               TestSuite.check(expected.equals(new Extractor(points).getLinesHashed()), "hashed");
+               TestSuite.check(expected.equals(new Extractor(new PointSet(points)).getLinesFast()),
+                  "fast from a PointSet");
+            }
+         }
+         finally {
+            pool.shutdown();
+         }
+      });
+
+      suite.test("Extractor getLinesFastParallel matches getLinesFast on repeated points", () -> {
+         Random random = new Random(11);
+         for (int trial = 0; trial < 2000; trial++) {
+            List<Point> points = randomPoints(random, 2 + random.nextInt(20));
+            TestSuite.check(new Extractor(points).getLinesFast().equals(
+               new Extractor(points).getLinesFastParallel()), "parallel");
+         }
+      });
+
+      suite.test("Extractor getLinesHashed counts repeated points once", () -> {
+         Random random = new Random(12);
+         for (int trial = 0; trial < 2000; trial++) {
+            List<Point> points = randomPoints(random, 2 + random.nextInt(20));
+            List<Point> distinct = new ArrayList<Point>(new TreeSet<Point>(points));
+            SortedSet<Line> expected = new Extractor(distinct).getLinesFast();
+            TestSuite.check(expected.equals(new Extractor(points).getLinesHashed()), "hashed");
+            TestSuite.check(expected.equals(new Extractor(new PointSet(points)).getLinesHashed()),
+               "hashed from a PointSet");
+            Extractor grown = new Extractor(points.subList(0, points.size() / 2));
+            grown.getLines();
+            for (Point p : points.subList(points.size() / 2, points.size())) {
+               grown.add(p);
+            }
+            TestSuite.check(expected.equals(grown.getLines()), "grown by add");
+         }
+      });
+
+      suite.test("Extractor minimum lengths keep exactly the long lines", () -> {
+         Random random = new Random(13);
+         for (int trial = 0; trial < 500; trial++) {
+            List<Point> points = randomPoints(random, 2 + random.nextInt(40));
+            if (trial % 2 == 0) {
+               plantLine(random, points, 3 + random.nextInt(10));
+            }
+            Extractor extractor = new Extractor(points);
+            SortedSet<Line> all = extractor.getLinesHashed(2);
+            for (int min = 2; min <= 14; min++) {
+               SortedSet<Line> expected = new TreeSet<Line>();
+               for (Line line : all) {
+                  if (line.length() >= min) {
+                     expected.add(line);
+                  }
+               }
+               TestSuite.check(expected.equals(extractor.getLinesHashed(min)), "min = " + min);
+            }
+         }
+      });
+
+      suite.test("LongIntHashMap clear and reuse across growth", () -> {
+         Random random = new Random(14);
+         LongIntHashMap map = new LongIntHashMap(4);
+         Map<Long, Integer> expected = new HashMap<Long, Integer>();
+         for (int round = 0; round < 200; round++) {
+            map.clear();
+            expected.clear();
+            int count = random.nextInt(round % 10 == 0 ? 500 : 20);
+            for (int i = 0; i < count; i++) {
+               long key = random.nextInt(1000) - 500;
+               expected.merge(key, 1, Integer::sum);
+               map.add(key, 1);
+            }
+            TestSuite.check(map.size() == expected.size(), "size");
+            for (long key = -500; key < 500; key++) {
+               Integer value = expected.get(key);
+               TestSuite.check(map.get(key) == (value == null ? 0 : value), "value of " + key);
+            }
+         }
+      });
+
+      suite.test("PointSet stores, copies and sorts points", () -> {
+         Random random = new Random(120);
+         List<Point> points = randomPoints(random, 500);
+         PointSet set = new PointSet(0);
+         for (Point p : points) {
+            set.add(p);
+         }
+         TestSuite.check(samePoints(set, points), "add keeps the order given");
+         TestSuite.check(samePoints(new PointSet(points), points), "from a collection");
+         TestSuite.check(samePoints(new PointSet(set), points), "copy");
+         TestSuite.check(Arrays.asList(set.toArray()).equals(points), "toArray");
+         List<Point> iterated = new ArrayList<Point>();
+         for (Point p : set) {
+            iterated.add(p);
+         }
+         TestSuite.check(iterated.equals(points), "iterator");
+         for (int i = 0; i < 100; i++) {
+            int a = random.nextInt(points.size());
+            int b = random.nextInt(points.size());
+            Point p = points.get(a);
+            Point q = points.get(b);
+            TestSuite.check(set.slopeKey(a, b) == Point.slopeKey(q.x() - p.x(), q.y() - p.y()),
+               "slopeKey");
+         }
+
+         List<Point> sorted = new ArrayList<Point>(points);
+         Collections.sort(sorted);
+         TestSuite.check(samePoints(set.sorted(), sorted), "sorted keeps repeats");
+         TestSuite.check(samePoints(set.distinct(), new ArrayList<Point>(new TreeSet<Point>(points))),
+            "distinct drops repeats");
+         TestSuite.check(samePoints(set, points), "sorting leaves the set as it was");
+
+         PointSet copy = new PointSet(set);
+         copy.add(0, 0);
+         TestSuite.check(set.size() == points.size(), "a copy does not share its arrays");
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> set.add(-1, 0));
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> set.add(0, -1));
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> new PointSet(-1));
+         TestSuite.checkThrows(IndexOutOfBoundsException.class, () -> set.get(points.size()));
+         TestSuite.checkThrows(IndexOutOfBoundsException.class, () -> set.get(-1));
+      });
+
+      suite.test("PointSet read and write round trip text and binary files", () -> {
+         Random random = new Random(130);
+         Path text = Files.createTempFile("points", ".txt");
+         Path binary = Files.createTempFile("points", ".pts");
+         try {
+            for (int trial = 0; trial < 50; trial++) {
+               List<Point> points = new ArrayList<Point>();
+               int count = trial == 0 ? 0 : random.nextInt(2_000);
+               for (int i = 0; i < count; i++) {
+                  points.add(new Point(random.nextInt(Integer.MAX_VALUE),
+                     random.nextInt(1 + random.nextInt(1_000))));
+               }
+               String[] gaps = {" ", "  ", "\t", "\n", "\r\n", " \n\t"};
+               StringBuilder file = new StringBuilder(gaps[random.nextInt(gaps.length)]);
+               file.append(count);
+               for (Point p : points) {
+                  file.append(gaps[random.nextInt(gaps.length)]).append(p.x());
+                  file.append(gaps[random.nextInt(gaps.length)]).append(trial % 5 == 0 ? "+" : "")
+                     .append(p.y());
+               }
+               file.append(trial % 2 == 0 ? "\n" : "\nnot read: 9 -1 x\n");
+               Files.write(text, file.toString().getBytes(StandardCharsets.US_ASCII));
+
+               PointSet fromText = PointSet.read(text.toString());
+               TestSuite.check(samePoints(fromText, points), "text file");
+               fromText.write(binary.toString());
+               TestSuite.check(Files.size(binary) == 8 + 8L * count, "binary file length");
+               TestSuite.check(samePoints(PointSet.read(binary.toString()), points), "binary file");
+            }
+
+            List<Point> grid = randomPoints(random, 30);
+            plantLine(random, grid, 6);
+            new PointSet(grid).write(binary.toString());
+            TestSuite.check(new Extractor(binary.toString()).getLinesFast()
+               .equals(new Extractor(grid).getLinesFast()), "Extractor from a file");
+
+            for (String bad : new String[] {"", "3 1 2 3 4", "2 1 2 x 4", "1 2147483648 0",
+                  "-1", "1 - 2"}) {
+               Files.write(text, bad.getBytes(StandardCharsets.US_ASCII));
+               TestSuite.checkThrows(IOException.class, () -> PointSet.read(text.toString()));
+            }
+            Files.write(text, "2 1 2 -3 4".getBytes(StandardCharsets.US_ASCII));
+            TestSuite.checkThrows(IllegalArgumentException.class,
+               () -> PointSet.read(text.toString()));
+
+            byte[] bytes = Files.readAllBytes(binary);
+            Files.write(binary, Arrays.copyOf(bytes, bytes.length - 4));
+            TestSuite.checkThrows(IOException.class, () -> PointSet.read(binary.toString()));
+            ByteBuffer negative = ByteBuffer.allocate(16).putInt(0x50545331).putInt(1)
+               .putInt(-5).putInt(7);
+            Files.write(binary, negative.array());
+            TestSuite.checkThrows(IOException.class, () -> PointSet.read(binary.toString()));
+         }
+         finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+         }
+      });
+
+      suite.test("Line keeps its points sorted and collinear", () -> {
+         Random random = new Random(150);
+         Line previous = new Line();
+         for (int trial = 0; trial < 2000; trial++) {
+            List<Point> candidates = randomPoints(random, random.nextInt(30));
+            if (trial % 2 == 0) {
+               plantLine(random, candidates, 2 + random.nextInt(12));
+               Collections.shuffle(candidates, random);
+            }
+            Line line = new Line();
+            TreeSet<Point> expected = new TreeSet<Point>();
+            for (Point p : candidates) {
+               boolean fits = !expected.contains(p) && (expected.size() < 2
+                  || cross(expected.first(), expected.last(), p) == 0);
+               TestSuite.check(line.add(p) == fits, "add " + p + " to " + line);
+               if (fits) {
+                  expected.add(p);
+               }
+            }
+            TestSuite.check(line.length() == expected.size(), "length");
+            List<Point> points = new ArrayList<Point>();
+            for (Point p : line) {
+               points.add(p);
+            }
+            TestSuite.check(points.equals(new ArrayList<Point>(expected)), "ascending order");
+            TestSuite.check(expected.isEmpty() ? line.first() == null && line.last() == null
+               : line.first().equals(expected.first()) && line.last().equals(expected.last()),
+               "first and last");
+
+            Line rebuilt = new Line(points);
+            Collections.reverse(points);
+            Line reversed = new Line(points);
+            TestSuite.check(rebuilt.equals(line) && reversed.equals(line)
+               && rebuilt.compareTo(line) == 0 && reversed.length() == line.length(),
+               "built from a collection in any order");
+
+            // Lines order by first point, then last point; empty lines first.
+            int order = Integer.compare(line.length(), previous.length());
+            if (line.length() > 0 && previous.length() > 0) {
+               order = line.first().compareTo(previous.first());
+               if (order == 0) {
+                  order = line.last().compareTo(previous.last());
+               }
+            }
+            TestSuite.check(Integer.signum(line.compareTo(previous)) == Integer.signum(order)
+               && line.equals(previous) == (order == 0), "compareTo and equals");
+            previous = line;
+         }
+      });
+
+      suite.test("PointIndex queries match brute force", () -> {
+         Random random = new Random(170);
+         for (int trial = 0; trial < 300; trial++) {
+            int side = 1 + random.nextInt(trial % 3 == 0 ? 10 : 1_000);
+            List<Point> points = new ArrayList<Point>();
+            int count = trial == 0 ? 0 : random.nextInt(400);
+            for (int i = 0; i < count; i++) {
+               points.add(new Point(random.nextInt(side), random.nextInt(side)));
+            }
+            PointIndex index = trial % 2 == 0 ? new PointIndex(points)
+               : new PointIndex(new PointSet(points));
+            TestSuite.check(index.size() == count, "size");
+
+            for (int query = 0; query < 20; query++) {
+               int x1 = random.nextInt(side + 2) - 1;
+               int y1 = random.nextInt(side + 2) - 1;
+               int x2 = random.nextInt(side + 2) - 1;
+               int y2 = random.nextInt(side + 2) - 1;
+               List<Point> inside = new ArrayList<Point>();
+               for (Point p : points) {
+                  if (p.x() >= x1 && p.x() <= x2 && p.y() >= y1 && p.y() <= y2) {
+                     inside.add(p);
+                  }
+               }
+               TestSuite.check(sameMembers(index.range(x1, y1, x2, y2), inside), "range");
+
+               Point center = new Point(random.nextInt(side), random.nextInt(side));
+               int radius = random.nextInt(1 + side / 2);
+               List<Point> near = new ArrayList<Point>();
+               for (Point p : points) {
+                  if (distance(center, p) <= (long) radius * radius) {
+                     near.add(p);
+                  }
+               }
+               TestSuite.check(sameMembers(index.withinRadius(center, radius), near),
+                  "withinRadius " + radius);
+
+               // Ties make the nearest points ambiguous, so compare their
+               // distances and check that each one is indexed.
+               int k = 1 + random.nextInt(12);
+               List<Long> expected = new ArrayList<Long>();
+               for (Point p : points) {
+                  expected.add(distance(center, p));
+               }
+               Collections.sort(expected);
+               List<Point> nearest = index.nearest(center, k);
+               List<Long> found = new ArrayList<Long>();
+               for (Point p : nearest) {
+                  found.add(distance(center, p));
+               }
+               TestSuite.check(found.equals(expected.subList(0, Math.min(k, count))),
+                  "nearest " + k);
+               List<Point> unused = new ArrayList<Point>(points);
+               for (Point p : nearest) {
+                  TestSuite.check(unused.remove(p), "nearest returned " + p + " too often");
+               }
+            }
+            TestSuite.checkThrows(IllegalArgumentException.class,
+               () -> index.withinRadius(new Point(0, 0), -1));
+            TestSuite.checkThrows(IllegalArgumentException.class,
+               () -> index.nearest(new Point(0, 0), 0));
+         }
+      });
+
+      suite.test("Extractor getIndex follows added points", () -> {
+         Extractor extractor = new Extractor(Arrays.asList(new Point(1, 1), new Point(5, 5)));
+         TestSuite.check(extractor.getIndex().range(0, 0, 10, 10).size() == 2, "initial points");
+         extractor.add(new Point(3, 3));
+         TestSuite.check(extractor.getIndex().range(0, 0, 10, 10).size() == 3, "added point");
+         TestSuite.check(extractor.getIndex().nearest(new Point(3, 4), 1).get(0)
+            .equals(new Point(3, 3)), "nearest added point");
+      });
+   }
+
+   /**
+    * Returns count points on a small grid, so that many are collinear and
+    * some are repeated.
+    */
+   private static List<Point> randomPoints(Random random, int count) {
+      int side = 2 + random.nextInt(5);
+      List<Point> points = new ArrayList<Point>();
+      for (int i = 0; i < count; i++) {
+         points.add(new Point(random.nextInt(side), random.nextInt(side)));
+      }
+      return points;
+   }
+
+   /**
+    * Adds length points on a line in a random direction to points, within
+    * the grid randomPoints draws from when the direction is short.
+    */
+   private static void plantLine(Random random, List<Point> points, int length) {
+      int dx = random.nextInt(3);
+      int dy = random.nextInt(3);
+      if (dx == 0 && dy == 0) {
+         dx = 1;
+      }
+      int x = random.nextInt(4);
+      int y = random.nextInt(4);
+      for (int i = 0; i < length; i++) {
+         points.add(new Point(x + i * dx, y + i * dy));
+      }
+   }
+
+   /**
+    * Returns true if set holds exactly the points in expected, in order.
+    */
+   private static boolean samePoints(PointSet set, List<Point> expected) {
+      if (set.size() != expected.size()) {
+         return false;
+      }
+      for (int i = 0; i < set.size(); i++) {
+         Point p = expected.get(i);
+         if (set.x(i) != p.x() || set.y(i) != p.y() || !set.get(i).equals(p)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Returns the cross product of b - a and c - a, which is zero exactly
+    * when a, b and c are collinear.
+    */
+   private static long cross(Point a, Point b, Point c) {
+      return (long) (b.x() - a.x()) * (c.y() - a.y())
+         - (long) (b.y() - a.y()) * (c.x() - a.x());
+   }
+
+   /**
+    * Returns true if actual and expected hold the same points the same
+    * number of times, in any order.
+    */
+   private static boolean sameMembers(List<Point> actual, List<Point> expected) {
+      List<Point> a = new ArrayList<Point>(actual);
+      List<Point> b = new ArrayList<Point>(expected);
+      Collections.sort(a);
+      Collections.sort(b);
+      return a.equals(b);
+   }
+
+   /**
+    * Returns the squared distance between p and q.
+    */
+   private static long distance(Point p, Point q) {
+      long dx = p.x() - q.x();
+      long dy = p.y() - q.y();
+      return dx * dx + dy * dy;
+   }
+
+}
@@ -0,0 +1,360 @@
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ListTests.java. Regression tests for the randomized lists of Module04.
+ */
+public final class ListTests {
+
+   private ListTests() { }
+
+   /**
+    * Runs every list test that passes the suite filter.
+    *
+    * @param suite suite to run the tests on
+    */
+   public static void run(TestSuite suite) {
+      suite.test("FenwickRandomizedList survives a large weight cancelling out", () -> {
+         FenwickRandomizedList<String> list = new FenwickRandomizedList<String>(0, 1);
+         list.add("big", 1e17);
+         list.add("small", 1.0);
+         list.setWeight("big", 1.0);
+         TestSuite.check(list.totalWeight() == 2.0, "total is exact after the rebuild");
+         int big = 0;
+         for (int i = 0; i < 10_000; i++) {
+            if (list.sample().equals("big")) {
+               big++;
+            }
+         }
+         TestSuite.check(big > 4_500 && big < 5_500, "equal weights are sampled evenly: " + big);
+         TestSuite.check(list.remove("big") && list.remove() == "small" && list.remove() == null,
+            "removes every element");
+      });
+
+      suite.test("FenwickRandomizedList mixing large and small weights", () -> {
+         Random random = new Random(24);
+         FenwickRandomizedList<Integer> list = new FenwickRandomizedList<Integer>(0, 24);
+         ArrayList<Integer> present = new ArrayList<Integer>();
+         double[] scales = {1e-12, 1.0, 1e6, 1e17, 1e300};
+         for (int op = 0; op < 200_000; op++) {
+            int choice = random.nextInt(8);
+            double weight = scales[random.nextInt(scales.length)] * (1 + random.nextDouble());
+            if (choice < 3 || present.isEmpty()) {
+               list.add(op, weight);
+               present.add(op);
+            }
+            else if (choice < 6) {
+               list.setWeight(present.get(random.nextInt(present.size())), weight);
+            }
+            else if (choice == 6) {
+               Integer removed = list.remove();
+               TestSuite.check(removed != null && present.remove(removed), "removed a member");
+            }
+            else {
+               Integer sampled = list.sample();
+               TestSuite.check(sampled != null && list.weight(sampled) > 0, "sampled a member");
+            }
+
+            if (op % 1_000 == 0) {
+               double exact = 0;
+               for (Integer element : present) {
+                  exact += list.weight(element);
+               }
+               TestSuite.check(list.size() == present.size(), "size");
+               TestSuite.check(Math.abs(list.totalWeight() - exact) <= exact * 1e-6,
+                  "total " + list.totalWeight() + " drifted from " + exact);
+            }
+         }
+      });
+
+      suite.test("StripedRandomizedList is never empty while it holds elements", () -> {
+         StripedRandomizedList<Integer> list = new StripedRandomizedList<Integer>(8);
+         AtomicInteger nulls = new AtomicInteger();
+         Thread[] threads = new Thread[4];
+         for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+               // Each thread removes only after adding, so the list always
+               // holds at least the element this thread just added.
+               for (int i = 0; i < 200_000; i++) {
+                  list.add(i);
+                  if (list.remove() == null) {
+                     nulls.incrementAndGet();
+                  }
+               }
+            });
+            threads[t].start();
+         }
+         for (Thread thread : threads) {
+            thread.join();
+         }
+         TestSuite.check(nulls.get() == 0, nulls.get() + " removes found the list empty");
+         TestSuite.check(list.isEmpty() && list.remove() == null, "every element was removed");
+      });
+
+      suite.test("StripedRandomizedList recovers from a bound below a stripe size", () -> {
+         // The state a lost race between tightening the bound and an add
+         // used to leave behind: elements in a stripe but a bound of zero.
+         StripedRandomizedList<Integer> list = new StripedRandomizedList<Integer>(1);
+         list.add(1);
+         list.add(2);
+         list.add(3);
+         Field field = StripedRandomizedList.class.getDeclaredField("bound");
+         field.setAccessible(true);
+         ((AtomicInteger) field.get(list)).set(0);
+         TestSuite.check(list.sample() != null, "sample found an element");
+         int sum = 0;
+         for (int i = 0; i < 3; i++) {
+            Integer removed = list.remove();
+            TestSuite.check(removed != null, "remove found an element");
+            sum += removed;
+         }
+         TestSuite.check(sum == 6 && list.remove() == null, "removed each element once");
+      });
+
+      suite.test("RandomizedList addAll rejects a null collection", () -> {
+         RandomizedList<Integer> array = new ArrayRandomizedList<Integer>();
+         RandomizedList<Integer> striped = new StripedRandomizedList<Integer>(2);
+         RandomizedList<Integer> fenwick = new FenwickRandomizedList<Integer>(0, 1);
+         for (RandomizedList<Integer> list : Arrays.asList(array, striped, fenwick)) {
+            TestSuite.checkThrows(IllegalArgumentException.class, () -> list.addAll(null));
+            TestSuite.check(list.isEmpty(), list.getClass().getSimpleName() + " was changed");
+         }
+      });
+
+      suite.test("NodeDoubleEndedList matches ArrayDeque", () -> {
+         checkDeque(new NodeDoubleEndedList<Integer>(), 19);
+      });
+
+      suite.test("ArrayDoubleEndedList matches ArrayDeque", () -> {
+         // Capacity 0 starts at the smallest array, so the mix wraps
+         // around, doubles and halves it many times.
+         checkDeque(new ArrayDoubleEndedList<Integer>(0), 20);
+         checkDeque(new ArrayDoubleEndedList<Integer>(), 21);
+         TestSuite.checkThrows(IllegalArgumentException.class,
+            () -> new ArrayDoubleEndedList<Integer>(-1));
+      });
+
+      suite.test("ArrayRandomizedList with a seed repeats its choices", () -> {
+         ArrayRandomizedList<Integer> first = new ArrayRandomizedList<Integer>(1, 21);
+         ArrayRandomizedList<Integer> second = new ArrayRandomizedList<Integer>(1, 21);
+         ArrayRandomizedList<Integer> other = new ArrayRandomizedList<Integer>(1, 22);
+         StringBuilder a = new StringBuilder();
+         StringBuilder b = new StringBuilder();
+         StringBuilder c = new StringBuilder();
+         for (int i = 0; i < 1_000; i++) {
+            first.add(i);
+            second.add(i);
+            other.add(i);
+            if (i % 3 == 2) {
+               a.append(first.remove()).append(' ').append(first.sample()).append(' ');
+               b.append(second.remove()).append(' ').append(second.sample()).append(' ');
+               c.append(other.remove()).append(' ').append(other.sample()).append(' ');
+            }
+         }
+         for (Integer element : first) {
+            a.append(element).append(' ');
+         }
+         for (Integer element : second) {
+            b.append(element).append(' ');
+         }
+         for (Integer element : other) {
+            c.append(element).append(' ');
+         }
+         TestSuite.check(a.toString().equals(b.toString()), "same seed, same choices");
+         TestSuite.check(!a.toString().equals(c.toString()), "another seed, other choices");
+      });
+
+      suite.test("ArrayRandomizedList samples uniformly", () -> {
+         ArrayRandomizedList<Integer> list = new ArrayRandomizedList<Integer>(10, 23);
+         for (int i = 0; i < 10; i++) {
+            list.add(i);
+         }
+         int[] counts = new int[10];
+         for (int i = 0; i < 100_000; i++) {
+            counts[list.sample()]++;
+         }
+         for (int count : counts) {
+            TestSuite.check(count > 9_400 && count < 10_600, "sample count " + count);
+         }
+      });
+
+      suite.test("ArrayRandomizedList iterator visits each element once", () -> {
+         int[] sizes = new int[300];
+         for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = i < 260 ? i : (i - 259) * 997;
+         }
+         for (int n : sizes) {
+            ArrayRandomizedList<Integer> list = new ArrayRandomizedList<Integer>(1, n);
+            for (int i = 0; i < n; i++) {
+               list.add(i);
+            }
+            boolean[] seen = new boolean[n];
+            Iterator<Integer> it = list.iterator();
+            for (int i = 0; i < n; i++) {
+               TestSuite.check(it.hasNext(), "n = " + n + " ended early");
+               int element = it.next();
+               TestSuite.check(!seen[element], "n = " + n + " repeated " + element);
+               seen[element] = true;
+            }
+            TestSuite.check(!it.hasNext(), "n = " + n + " ran past the end");
+            TestSuite.checkThrows(NoSuchElementException.class, it::next);
+            TestSuite.checkThrows(UnsupportedOperationException.class, it::remove);
+            TestSuite.check(list.size() == n, "iteration changed the list");
+         }
+      });
+
+      suite.test("ArrayRandomizedList iterators are independent", () -> {
+         ArrayRandomizedList<Integer> list = new ArrayRandomizedList<Integer>(1, 22);
+         for (int i = 0; i < 100; i++) {
+            list.add(i);
+         }
+         ArrayList<Integer> first = new ArrayList<Integer>();
+         ArrayList<Integer> second = new ArrayList<Integer>();
+         Iterator<Integer> a = list.iterator();
+         Iterator<Integer> b = list.iterator();
+         while (a.hasNext() && b.hasNext()) {
+            first.add(a.next());
+            second.add(b.next());
+         }
+         TestSuite.check(!a.hasNext() && !b.hasNext(), "both iterators finish");
+         TestSuite.check(!first.equals(second), "simultaneous iterators differ");
+      });
+
+      suite.test("RandomizedList batch operations", () -> {
+         checkBatch(new ArrayRandomizedList<Integer>(1, 23));
+         checkBatch(new StripedRandomizedList<Integer>(4));
+         checkBatch(new FenwickRandomizedList<Integer>(0, 23));
+      });
+
+      suite.test("ArrayRandomizedList samples without replacement uniformly", () -> {
+         ArrayRandomizedList<Integer> list = new ArrayRandomizedList<Integer>(10, 23);
+         for (int i = 0; i < 10; i++) {
+            list.add(i);
+         }
+         int[] chosen = new int[10];
+         int[] first = new int[10];
+         for (int trial = 0; trial < 30_000; trial++) {
+            List<Integer> sampled = list.sample(3, false);
+            TestSuite.check(sampled.size() == 3 && !sampled.get(0).equals(sampled.get(1))
+               && !sampled.get(0).equals(sampled.get(2))
+               && !sampled.get(1).equals(sampled.get(2)), "three distinct elements");
+            for (int element : sampled) {
+               chosen[element]++;
+            }
+            first[sampled.get(0)]++;
+         }
+         for (int i = 0; i < 10; i++) {
+            TestSuite.check(chosen[i] > 8_550 && chosen[i] < 9_450, "chosen " + chosen[i]);
+            TestSuite.check(first[i] > 2_700 && first[i] < 3_300, "first " + first[i]);
+         }
+         TestSuite.check(list.size() == 10, "sampling changed the list");
+      });
+   }
+
+   /**
+    * Runs the same random mix of operations at both ends of list and of an
+    * ArrayDeque, in phases that alternately grow and drain the list, and
+    * checks that they agree after every operation.
+    */
+   private static void checkDeque(DoubleEndedList<Integer> list, long seed) {
+      Random random = new Random(seed);
+      ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+      TestSuite.checkThrows(IllegalArgumentException.class, () -> list.addFirst(null));
+      TestSuite.checkThrows(IllegalArgumentException.class, () -> list.addLast(null));
+      for (int op = 0; op < 100_000; op++) {
+         boolean growing = (op / 5_000) % 2 == 0;
+         int choice = random.nextInt(10);
+         if (choice < (growing ? 3 : 2)) {
+            list.addFirst(op);
+            expected.addFirst(op);
+         }
+         else if (choice < (growing ? 6 : 4)) {
+            list.addLast(op);
+            expected.addLast(op);
+         }
+         else if (choice < (growing ? 8 : 7)) {
+            TestSuite.check(eq(list.removeFirst(), expected.pollFirst()), "removeFirst");
+         }
+         else {
+            TestSuite.check(eq(list.removeLast(), expected.pollLast()), "removeLast");
+         }
+         TestSuite.check(list.size() == expected.size(), "size");
+         TestSuite.check(list.isEmpty() == expected.isEmpty(), "isEmpty");
+
+         if (op % 997 == 0) {
+            Iterator<Integer> it = list.iterator();
+            for (Integer element : expected) {
+               TestSuite.check(it.hasNext() && element.equals(it.next()), "iteration order");
+            }
+            TestSuite.check(!it.hasNext(), "iteration length");
+         }
+      }
+   }
+
+   /**
+    * Returns true if a and b are both null or equal.
+    */
+   private static boolean eq(Integer a, Integer b) {
+      return a == null ? b == null : a.equals(b);
+   }
+
+   /**
+    * Checks addAll, removeMany and sample(n, withReplacement) on list,
+    * which must be empty, against the elements known to be in it.
+    */
+   private static void checkBatch(RandomizedList<Integer> list) {
+      String name = list.getClass().getSimpleName() + ": ";
+      TestSuite.check(list.removeMany(5).isEmpty(), name + "removeMany on empty");
+      TestSuite.check(list.sample(5, true).isEmpty(), name + "sample with replacement on empty");
+      TestSuite.check(list.sample(5, false).isEmpty(), name + "sample on empty");
+
+      List<Integer> added = new ArrayList<Integer>();
+      for (int i = 0; i < 100; i++) {
+         added.add(i);
+      }
+      list.addAll(added);
+      TestSuite.check(list.size() == 100, name + "addAll size");
+      TestSuite.checkThrows(IllegalArgumentException.class,
+         () -> list.addAll(Arrays.asList(100, null)));
+      TestSuite.check(list.size() == 100, name + "a rejected addAll changed the list");
+      TestSuite.checkThrows(IllegalArgumentException.class, () -> list.removeMany(-1));
+      TestSuite.checkThrows(IllegalArgumentException.class, () -> list.sample(-1, true));
+      TestSuite.checkThrows(IllegalArgumentException.class, () -> list.sample(-1, false));
+
+      List<Integer> drawn = list.sample(250, true);
+      TestSuite.check(drawn.size() == 250, name + "sample with replacement size");
+      for (int element : drawn) {
+         TestSuite.check(element >= 0 && element < 100, name + "sampled a member");
+      }
+      for (int n : new int[] {0, 1, 30, 100, 150}) {
+         boolean[] seen = new boolean[100];
+         List<Integer> sampled = list.sample(n, false);
+         TestSuite.check(sampled.size() == Math.min(n, 100), name + "sample size " + n);
+         for (int element : sampled) {
+            TestSuite.check(!seen[element], name + "sampled " + element + " twice");
+            seen[element] = true;
+         }
+      }
+      TestSuite.check(list.size() == 100, name + "sampling changed the list");
+
+      boolean[] removed = new boolean[100];
+      List<Integer> some = list.removeMany(30);
+      TestSuite.check(some.size() == 30 && list.size() == 70, name + "removeMany size");
+      List<Integer> rest = list.removeMany(1_000);
+      TestSuite.check(rest.size() == 70 && list.isEmpty(), name + "removeMany takes the rest");
+      List<Integer> all = new ArrayList<Integer>(some);
+      all.addAll(rest);
+      for (int element : all) {
+         TestSuite.check(!removed[element], name + "removed " + element + " twice");
+         removed[element] = true;
+      }
+   }
+
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SelectorTests.java. Regression tests for the selection classes of
+ * Module01.
+ */
+public final class SelectorTests {
+
+   private SelectorTests() { }
+
+   /**
+    * Runs every Selector test that passes the suite filter.
+    *
+    * @param suite suite to run the tests on
+    */
+   public static void run(TestSuite suite) {
+      suite.test("Selector scratchLength at the hashing boundary", () -> {
+         int max = Selector.MAX_HASHED;
+         TestSuite.check(Selector.scratchLength(max) == max << 2,
+            "largest hashed input gets a table four times its size");
+         TestSuite.check(Selector.scratchLength(max + 1) == max + 1,
+            "one more value is sorted in a buffer of its own size");
+         for (int n : new int[] {1 << 27, 1 << 28, (1 << 29) - 1, 1 << 29, 1 << 30,
+               Integer.MAX_VALUE}) {
+            TestSuite.check(Selector.scratchLength(n) == n, "n = " + n + " is sorted");
+         }
+         for (int n = 1; n <= 1 << 20; n = n * 3 + 1) {
+            int length = Selector.scratchLength(n);
+            TestSuite.check(Integer.bitCount(length) == 1 && length >= 2 * n,
+               "n = " + n + " gets a half-empty power-of-two table");
+         }
+      });
+
+      suite.test("Selector distinct agrees on the hashed and sorted paths", () -> {
+         Random random = new Random(1);
+         for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(500);
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+               a[i] = random.nextInt(2 * n) - n;
+            }
+            int[] hashed = new int[Selector.scratchLength(n)];
+            int[] sorted = new int[n];
+            int count = Selector.distinct(a, 0, n, hashed);
+            TestSuite.check(count == Selector.distinct(a, 0, n, sorted), "same count");
+            int[] h = Arrays.copyOf(hashed, count);
+            Arrays.sort(h);
+            TestSuite.check(Arrays.equals(h, Arrays.copyOf(sorted, count)), "same values");
+         }
+      });
+
+      suite.test("Selector kmin and kmax match a sorted copy", () -> {
+         Random random = new Random(2);
+         for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(300);
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+               a[i] = random.nextInt(n) - n / 2;
+            }
+            int[] d = Arrays.stream(a).distinct().sorted().toArray();
+            int k = 1 + random.nextInt(d.length);
+            TestSuite.check(Selector.kmin(a, k) == d[k - 1], "kmin");
+            TestSuite.check(Selector.kmax(a, k) == d[d.length - k], "kmax");
+         }
+      });
+
+      suite.test("ParallelSelector agrees with Selector across chunks", () -> {
+         Random random = new Random(6);
+         ForkJoinPool pool = new ForkJoinPool(3);
+         try {
+            ParallelSelector parallel = new ParallelSelector(pool, 16);
+            for (int trial = 0; trial < 200; trial++) {
+               int n = 1 + random.nextInt(1000);
+               int[] a = new int[n];
+               for (int i = 0; i < n; i++) {
+                  a[i] = random.nextInt(n) - n / 2;
+               }
+               int distinct = (int) Arrays.stream(a).distinct().count();
+               int k = 1 + random.nextInt(distinct);
+               int key = random.nextInt(n) - n / 2;
+               TestSuite.check(parallel.min(a) == Selector.min(a), "min");
+               TestSuite.check(parallel.max(a) == Selector.max(a), "max");
+               TestSuite.check(parallel.kmin(a, k) == Selector.kmin(a, k), "kmin");
+               TestSuite.check(parallel.kmax(a, k) == Selector.kmax(a, k), "kmax");
+               int[] range = parallel.range(a, -Math.abs(key), Math.abs(key));
+               int[] expected = Selector.range(a, -Math.abs(key), Math.abs(key));
+               Arrays.sort(range);
+               Arrays.sort(expected);
+               TestSuite.check(Arrays.equals(range, expected), "range");
+            }
+         }
+         finally {
+            pool.shutdown();
+         }
+      });
+
+      suite.test("Selector summarize floor and ceiling at the int limits", () -> {
+         int lo = Integer.MIN_VALUE;
+         int hi = Integer.MAX_VALUE;
+         Summary s = Selector.summarize(new int[] {lo, 0, hi}, lo, -1, 1, hi);
+         TestSuite.check(s.floor(0) == lo && s.floor(1) == lo, "MIN_VALUE is a floor");
+         TestSuite.check(s.ceiling(2) == hi && s.ceiling(3) == hi, "MAX_VALUE is a ceiling");
+         TestSuite.check(s.ceiling(0) == lo && s.floor(3) == hi, "keys that are values");
+
+         Summary inside = Selector.summarize(new int[] {-5, 5}, lo, hi);
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> inside.floor(0));
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> inside.ceiling(1));
+         TestSuite.check(inside.ceiling(0) == -5 && inside.floor(1) == 5, "limits as keys");
+      });
+
+      suite.test("Selector summarize agrees with floor and ceiling elsewhere", () -> {
+         Random random = new Random(3);
+         for (int trial = 0; trial < 200; trial++) {
+            int[] a = new int[1 + random.nextInt(50)];
+            for (int i = 0; i < a.length; i++) {
+               a[i] = random.nextInt(100) - 50;
+            }
+            int key = random.nextInt(140) - 70;
+            Summary s = Selector.summarize(a, key);
+            if (key < Selector.min(a)) {
+               TestSuite.checkThrows(IllegalArgumentException.class, () -> s.floor(0));
+            }
+            else {
+               TestSuite.check(s.floor(0) == Selector.floor(a, key), "floor");
+            }
+            if (key > Selector.max(a)) {
+               TestSuite.checkThrows(IllegalArgumentException.class, () -> s.ceiling(0));
+            }
+            else {
+               TestSuite.check(s.ceiling(0) == Selector.ceiling(a, key), "ceiling");
+            }
+         }
+      });
+
+      suite.test("Selector long and double kmin and kmax share the core", () -> {
+         Random random = new Random(4);
+         long[] extremes = {Long.MIN_VALUE, Long.MAX_VALUE, 0, -1, 1};
+         double[] special = {Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, -Double.MIN_VALUE};
+         for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(300);
+            long[] a = new long[n];
+            double[] b = new double[n];
+            for (int i = 0; i < n; i++) {
+               a[i] = random.nextInt(4) == 0 ? extremes[random.nextInt(extremes.length)]
+                  : random.nextLong() >> random.nextInt(64);
+               b[i] = random.nextInt(4) == 0 ? special[random.nextInt(special.length)]
+                  : random.nextInt(n) - n / 2.0;
+            }
+            long[] da = Arrays.stream(a).distinct().sorted().toArray();
+            int k = 1 + random.nextInt(da.length);
+            TestSuite.check(Selector.kmin(a, k) == da[k - 1], "long kmin");
+            TestSuite.check(Selector.kmax(a, k) == da[da.length - k], "long kmax");
+
+            Double[] boxed = Arrays.stream(b).boxed().distinct().sorted().toArray(Double[]::new);
+            int j = 1 + random.nextInt(boxed.length);
+            TestSuite.check(Double.compare(Selector.kmin(b, j), boxed[j - 1]) == 0, "double kmin");
+            TestSuite.check(Double.compare(Selector.kmax(b, j), boxed[boxed.length - j]) == 0,
+               "double kmax");
+         }
+      });
+
+      suite.test("Selector int kmin and kmax at the int limits", () -> {
+         int[] a = {Integer.MAX_VALUE, 0, Integer.MIN_VALUE, 0, -1, Integer.MAX_VALUE};
+         TestSuite.check(Selector.kmin(a, 1) == Integer.MIN_VALUE, "smallest");
+         TestSuite.check(Selector.kmax(a, 1) == Integer.MAX_VALUE, "largest");
+         TestSuite.check(Selector.kmin(a, 3) == 0 && Selector.kmax(a, 4) == Integer.MIN_VALUE,
+            "middle and last");
+         TestSuite.checkThrows(IllegalArgumentException.class, () -> Selector.kmin(a, 5));
+      });
+
+      suite.test("StreamingSelector set length at the limit of k", () -> {
+         int max = StreamingSelector.MAX_K;
+         TestSuite.check(StreamingSelector.setLength(max) == 1 << 30, "largest k");
+         for (int k = 1; k <= 1 << 20; k = k * 3 + 1) {
+            int length = StreamingSelector.setLength(k);
+            TestSuite.check(Integer.bitCount(length) == 1 && length >= 2 * k && length < 4 * k,
+               "k = " + k + " gets a half-empty power-of-two set");
+         }
+         for (int k : new int[] {0, max + 1, 1 << 30, Integer.MAX_VALUE}) {
+            TestSuite.checkThrows(IllegalArgumentException.class, () -> StreamingSelector.smallest(k));
+            TestSuite.checkThrows(IllegalArgumentException.class, () -> StreamingSelector.largest(k));
+         }
+      });
+
+      suite.test("StreamingSelector agrees with Selector kmin and kmax", () -> {
+         Random random = new Random(5);
+         for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(300);
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+               a[i] = random.nextInt(4) == 0 ? random.nextInt() : random.nextInt(n) - n / 2;
+            }
+            int distinct = (int) Arrays.stream(a).distinct().count();
+            int k = 1 + random.nextInt(distinct);
+            StreamingSelector small = StreamingSelector.smallest(k);
+            StreamingSelector large = StreamingSelector.largest(k);
+            small.acceptAll(a);
+            large.acceptAll(a);
+            int j = 1 + random.nextInt(k);
+            TestSuite.check(small.select(j) == Selector.kmin(a, j), "smallest");
+            TestSuite.check(large.select(j) == Selector.kmax(a, j), "largest");
+         }
+      });
+   }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * TestSuite.java. Runs the regression tests for every module. Run it from
+ * the repository root with Tests/run.sh, which compiles the modules and
+ * the tests together.
+ *
+ * Usage: java TestSuite [filter]
+ *
+ * Only tests whose names contain filter are run. One line is printed per
+ * failing test, then a count of the tests run and failed, and the exit
+ * status is nonzero if any test failed.
+ */
+public final class TestSuite {
+
+   /**
+    * The body of one test. It fails by throwing, usually from check.
+    */
+   public interface Body {
+      /**
+       * Runs the test.
+       *
+       * @throws Exception if the test fails
+       */
+      void run() throws Exception;
+   }
+
+   private final String filter;
+   private int run;
+   private int failed;
+
+   /**
+    * Creates a suite.
+    *
+    * @param filter only tests whose names contain this are run, or null
+    *        to run them all
+    */
+   private TestSuite(String filter) {
+      this.filter = filter;
+   }
+
+   /** Drives execution. */
+   public static void main(String[] args) {
+      TestSuite suite = new TestSuite(args.length > 0 ? args[0] : null);
+      SelectorTests.run(suite);
+      ExtractorTests.run(suite);
+      ListTests.run(suite);
+
+      System.out.printf("%d tests, %d failed%n", suite.run, suite.failed);
+      if (suite.failed > 0) {
+         System.exit(1);
+      }
+   }
+
+   /**
+    * Runs one test if its name passes the filter, and reports it if it
+    * throws anything.
+    *
+    * @param name test name
+    * @param body test to run
+    */
+   public void test(String name, Body body) {
+      if (filter != null && !name.contains(filter)) {
+         return;
+      }
+      run++;
+      try {
+         body.run();
+      }
+      catch (Throwable t) {
+         failed++;
+         System.out.println("FAIL " + name + ": " + t);
+      }
+   }
+
+   /**
+    * Fails the current test with the given message unless condition holds.
+    *
+    * @param condition what should be true
+    * @param message description of the failure
+    */
+   public static void check(boolean condition, String message) {
+      if (!condition) {
+         throw new AssertionError(message);
+      }
+   }
+
+   /**
+    * Fails the current test unless body throws an exception of the given
+    * type.
+    *
+    * @param expected type of exception body should throw
+    * @param body code that should throw
+    */
+   public static void checkThrows(Class<? extends Throwable> expected, Body body) {
+      try {
+         body.run();
+      }
+      catch (Throwable t) {
+         if (expected.isInstance(t)) {
+            return;
+         }
+         throw new AssertionError("expected " + expected.getSimpleName() + " but got " + t);
+      }
+      throw new AssertionError("expected " + expected.getSimpleName());
+   }
+
+}
@@ -0,0 +1,18 @@
+#!/bin/sh
+# Compiles the coursework modules together with the regression tests and
+# runs TestSuite from the repository root. An argument is passed on to
+# TestSuite as a filter on the test names.
+#
+#   Tests/run.sh               run every test
+#   Tests/run.sh Selector      only the Selector tests
+set -e
+cd "$(dirname "$0")/.."
+out="${TMPDIR:-/tmp}/cpsc1233-tests"
+rm -rf "$out"
+mkdir -p "$out"
+javac -nowarn -d "$out" \
+   Module01/*.java \
+   Module03/*.java \
+   $(ls Module04/*.java | grep -v RandomizedListArray.java) \
+   Tests/*.java
+exec java ${JAVA_OPTS:--Xmx1g} -cp "$out" TestSuite "$@"